@@ -0,0 +1,87 @@
+import java.lang.management.ManagementFactory;
+import java.util.function.IntSupplier;
+
+/**
+ * A small benchmark harness: warms an operation up, then times it over several fixed-length iterations
+ * and counts the bytes it allocates on the measuring thread.
+ * Each operation returns an int that is folded into {@link #sink}, so the JIT can't drop the work.
+ */
+public class Bench {
+    static final long WARMUP_MILLIS = 1000;
+    static final int ITERATIONS = 5;
+    static final long ITERATION_MILLIS = 1000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static volatile int sink;
+
+    private final long warmupMillis;
+    private final int iterations;
+    private final long iterationMillis;
+
+    public Bench(long warmupMillis, int iterations, long iterationMillis) {
+        this.warmupMillis = warmupMillis;
+        this.iterations = iterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    public Bench() {
+        this(WARMUP_MILLIS, ITERATIONS, ITERATION_MILLIS);
+    }
+
+    /**
+     * Measures the operation and prints one line: time per operation with its spread, bytes per operation and allocation rate
+     * @param name What's measured, printed first.
+     * @param operation The code to measure, called over and over.
+     */
+    public void run(String name, IntSupplier operation) {
+        runFor(operation, warmupMillis);
+
+        double[] nanosPerOp = new double[iterations];
+        long totalOps = 0, totalNanos = 0, totalBytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long ops = runFor(operation, iterationMillis);
+            long elapsed = System.nanoTime() - start;
+            totalBytes += THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            totalOps += ops;
+            totalNanos += elapsed;
+            nanosPerOp[i] = (double) elapsed / ops;
+        }
+
+        double mean = (double) totalNanos / totalOps;
+        double variance = 0;
+        for (double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean);
+        }
+        double deviation = Math.sqrt(variance / iterations);
+        double bytesPerOp = (double) totalBytes / totalOps;
+        double megabytesPerSecond = totalBytes / (totalNanos / 1e9) / (1024 * 1024);
+        System.out.printf("%-48s %14.1f +- %8.1f ns/op %12.1f B/op %10.1f MB/s%n",
+                name, mean, deviation, bytesPerOp, megabytesPerSecond);
+    }
+
+    /**
+     * Calls the operation in batches until the time is up
+     * @return How many times it was called
+     */
+    private static long runFor(IntSupplier operation, long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        long ops = 0;
+        int batch = 1;
+        int result = 0;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < batch; i++) {
+                result += operation.getAsInt();
+            }
+            ops += batch;
+            if (batch < 1 << 16) {
+                batch <<= 1;  //Read the clock less often for fast operations
+            }
+        }
+        sink += result;
+        return ops;
+    }
+}
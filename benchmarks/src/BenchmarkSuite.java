@@ -0,0 +1,98 @@
+/**
+ * Benchmarks the board, the rules and the machine's move selection on empty, mid-game and near-full
+ * positions at 6x7, 20x20 and 100x100, four to win.
+ * Usage: java BenchmarkSuite [filter] [--quick]
+ * Only benchmarks whose name contains the filter run; --quick shortens warmup and iterations for a smoke run.
+ */
+public class BenchmarkSuite {
+    static final int[][] SIZES = {{6, 7}, {20, 20}, {100, 100}};
+    static final int NUM_TO_WIN = 4;
+    static final long MACHINE_NODE_LIMIT = 20_000;  //Fixed work per move, so runs compare across machines and changes
+    static final int MACHINE_TABLE_SIZE_MB = 1;  //Cleared before every move, small so clearing doesn't dominate
+
+    public static void main(String[] args) {
+        String filter = "";
+        Bench bench = new Bench();
+        for (String arg : args) {
+            if (arg.equals("--quick")) {
+                bench = new Bench(200, 3, 200);
+            } else {
+                filter = arg;
+            }
+        }
+
+        System.out.printf("%-48s %26s %17s %13s%n", "Benchmark", "Time", "Allocated", "Rate");
+        for (int[] size : SIZES) {
+            for (String stage : BoardPositions.STAGES) {
+                String suffix = " " + size[0] + "x" + size[1] + " " + stage;
+                benchmarkGrid(bench, filter, size[0], size[1], stage, suffix);
+                benchmarkRules(bench, filter, size[0], size[1], stage, suffix);
+                benchmarkMachine(bench, filter, size[0], size[1], stage, suffix);
+            }
+        }
+    }
+
+    private static void benchmarkGrid(Bench bench, String filter, int rows, int cols, String stage, String suffix) {
+        Grid grid = BoardPositions.create(rows, cols, NUM_TO_WIN, stage).getGrid();
+
+        if (matches(filter, "Grid.updateGrid" + suffix)) {
+            int[] next = {0};
+            bench.run("Grid.updateGrid" + suffix, () -> {
+                int col = next[0];
+                next[0] = (col + 1 == cols) ? 0 : col + 1;
+                try {
+                    grid.updateGrid(BoardPositions.symbolAt(grid.findEmptyRowInColumn(col), col), col);
+                } catch (FullCollumnException e) {
+                    return 0;
+                }
+                return grid.undo();  //Drop and take back, so the position stays the same
+            });
+        }
+        if (matches(filter, "Grid.findEmptyRowInColumn" + suffix)) {
+            int[] next = {0};
+            bench.run("Grid.findEmptyRowInColumn" + suffix, () -> {
+                int col = next[0];
+                next[0] = (col + 1 == cols) ? 0 : col + 1;
+                return grid.findEmptyRowInColumn(col);
+            });
+        }
+        if (matches(filter, "Grid.isGridFull" + suffix)) {
+            bench.run("Grid.isGridFull" + suffix, () -> grid.isGridFull() ? 1 : 0);
+        }
+    }
+
+    private static void benchmarkRules(Bench bench, String filter, int rows, int cols, String stage, String suffix) {
+        Game game = BoardPositions.create(rows, cols, NUM_TO_WIN, stage);
+        GameRules rules = game.gameRules;
+
+        if (matches(filter, "GameRules.checkWin" + suffix)) {
+            bench.run("GameRules.checkWin" + suffix, () -> rules.checkWin('X') ? 1 : 0);
+        }
+        if (matches(filter, "GameRules.isThereWinningMove" + suffix)) {
+            bench.run("GameRules.isThereWinningMove" + suffix, () -> rules.isThereWinningMove('X') ? 1 : 0);
+        }
+    }
+
+    /**
+     * Times a whole move choice, opening book included when one is found, starting each time from an empty table
+     */
+    private static void benchmarkMachine(Bench bench, String filter, int rows, int cols, String stage, String suffix) {
+        String name = "SmartMachinePlayer.chooseColumn" + suffix;
+        if (!matches(filter, name)) {
+            return;
+        }
+        Game game = BoardPositions.create(rows, cols, NUM_TO_WIN, stage);
+        SmartMachinePlayer machine = new SmartMachinePlayer('X', game);
+        machine.setTimeLimitMillis(0);
+        machine.setNodeLimit(MACHINE_NODE_LIMIT);
+        machine.setTranspositionTable(MACHINE_TABLE_SIZE_MB, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        bench.run(name, () -> {
+            machine.clearTranspositionTable();  //Otherwise every run after the first replays the same search from the table
+            return machine.chooseColumn(game.getGrid(), 'X');
+        });
+    }
+
+    private static boolean matches(String filter, String name) {
+        return name.contains(filter);
+    }
+}
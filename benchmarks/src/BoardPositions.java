@@ -0,0 +1,35 @@
+/**
+ * Deterministic positions for the benchmarks: empty, half full and full except the top row.
+ * Tokens follow a pattern with runs of at most two in every direction, so no position is won
+ * whatever the win length (from 3).
+ */
+public class BoardPositions {
+    public static final String EMPTY = "empty", MID = "mid-game", NEAR_FULL = "near-full";
+    public static final String[] STAGES = {EMPTY, MID, NEAR_FULL};
+
+    /**
+     * @return A game with no players whose grid is at the given stage
+     */
+    public static Game create(int rows, int cols, int numToWin, String stage) {
+        Game game = new Game(rows, cols, numToWin);
+        int filledRows = switch (stage) {
+            case EMPTY -> 0;
+            case MID -> rows / 2;
+            default -> rows - 1;
+        };
+        Grid grid = game.getGrid();
+        for (int row = 0; row < filledRows; row++) {
+            for (int col = 0; col < cols; col++) {
+                grid.play(symbolAt(row, col), col);
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Alternates every row and every second column, which breaks up every line after two cells
+     */
+    static char symbolAt(int row, int col) {
+        return ((col / 2 + row) % 2 == 0) ? 'X' : 'O';
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Grid backed by a plain 2D array, used for boards too big for a bitboard.
+ */
+public class ArrayGrid extends Grid {
+    private final Character[][] board;
+
+    public ArrayGrid(int rows, int cols, int numToWin) {
+        super(rows, cols, numToWin);
+        board = new Character[rows][cols];  //Initialize the grid with null values
+    }
+
+    @Override
+    public Character getCell(int row, int col) {
+        return board[row][col];
+    }
+
+    @Override
+    protected void placeToken(int row, int col, char symbol) {
+        board[row][col] = symbol;
+    }
+
+    @Override
+    protected void removeToken(int row, int col) {
+        board[row][col] = null;
+    }
+
+    /**
+     * Resets all cells in the grid to null
+     */
+    @Override
+    protected void clearCells() {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                board[row][col] = null;  // Clear each cell by setting it to null
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Grid backed by two bitboards, one per player.
+ * Bit (col * (rows + 1) + row) stands for cell [row][col], the extra bit on top of every column
+ * is always empty, so runs can't wrap from one column to the next.
+ */
+public class BitboardGrid extends Grid {
+    private static final int X_INDEX = 0, O_INDEX = 1;
+
+    private final long[] boards = new long[2];  //One mask per player
+    private final int columnHeight;  //rows + 1, the bit distance between neighbouring columns
+    private final int[] shifts;  //Bit distance between neighbouring cells of a line, for each direction
+
+    public BitboardGrid(int rows, int cols, int numToWin) {
+        super(rows, cols, numToWin);
+        if (!fits(rows, cols)) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " grid doesn't fit in a bitboard");
+        }
+        columnHeight = rows + 1;
+        //Vertical, horizontal, diagonal (up-right) and anti-diagonal (down-right)
+        shifts = new int[]{1, columnHeight, columnHeight + 1, columnHeight - 1};
+    }
+
+    /**
+     * @return true if a rows x cols board (plus a sentinel row per column) fits in 64 bits
+     */
+    public static boolean fits(int rows, int cols) {
+        return (long) (rows + 1) * cols <= Long.SIZE;
+    }
+
+    private static int indexOf(char symbol) {
+        if (symbol == 'X') {
+            return X_INDEX;
+        } else if (symbol == 'O') {
+            return O_INDEX;
+        }
+        throw new IllegalArgumentException("Unknown symbol: " + symbol);
+    }
+
+    private long bit(int row, int col) {
+        return 1L << (col * columnHeight + row);
+    }
+
+    @Override
+    public Character getCell(int row, int col) {
+        long bit = bit(row, col);
+        if ((boards[X_INDEX] & bit) != 0) {
+            return 'X';
+        } else if ((boards[O_INDEX] & bit) != 0) {
+            return 'O';
+        }
+        return null;
+    }
+
+    @Override
+    protected void placeToken(int row, int col, char symbol) {
+        boards[indexOf(symbol)] |= bit(row, col);
+    }
+
+    @Override
+    protected void removeToken(int row, int col) {
+        long bit = bit(row, col);
+        boards[X_INDEX] &= ~bit;
+        boards[O_INDEX] &= ~bit;
+    }
+
+    @Override
+    protected void clearCells() {
+        boards[X_INDEX] = 0;
+        boards[O_INDEX] = 0;
+    }
+
+    /**
+     * Same as the array walk, but steps over bits so there's no boxing on the search's hot path.
+     */
+    @Override
+    public boolean isWinningDrop(int col, char symbol, int numToWin) {
+        long board = boards[indexOf(symbol)];
+        int position = col * columnHeight + findEmptyRowInColumn(col);
+        for (int shift : shifts) {
+            int length = 1;
+            for (int p = position + shift; p < Long.SIZE && (board >>> p & 1) != 0; p += shift) {
+                length++;
+            }
+            for (int p = position - shift; p >= 0 && (board >>> p & 1) != 0; p -= shift) {
+                length++;
+            }
+            if (length >= numToWin) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if symbol has numToWin in a line, using shifts instead of walking the cells.
+     * @param symbol The player's symbol ('X' or 'O').
+     * @param numToWin The length of a winning line.
+     * @param winSeq Receives the start and end of the winning line, if there is one.
+     * @return true if the player has won, false otherwise.
+     */
+    public boolean checkWin(char symbol, int numToWin, Coordinates winSeq) {
+        long board = boards[indexOf(symbol)];
+        for (int shift : shifts) {
+            long starts = runStarts(board, shift, numToWin);
+            if (starts != 0) {
+                int start = Long.numberOfTrailingZeros(starts);
+                int end = start + (numToWin - 1) * shift;
+                winSeq.setStartX(start % columnHeight);
+                winSeq.setStartY(start / columnHeight);
+                winSeq.setEndX(end % columnHeight);
+                winSeq.setEndY(end / columnHeight);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the bits that start a run of length tokens in the shift direction.
+     * Doubles the run length on each step, so it takes log(length) shifts.
+     */
+    private static long runStarts(long board, int shift, int length) {
+        if ((long) shift * (length - 1) >= Long.SIZE) {
+            return 0;  //A line that long can't fit in the board
+        }
+        long starts = board;
+        int covered = 1;
+        while (covered * 2 <= length) {
+            starts &= starts >>> (shift * covered);
+            covered *= 2;
+        }
+        if (covered < length) {
+            starts &= starts >>> (shift * (length - covered));
+        }
+        return starts;
+    }
+}
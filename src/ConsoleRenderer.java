@@ -0,0 +1,215 @@
+import java.io.PrintStream;
+
+/**
+ * Draws grids as text. Each frame is built in one reused StringBuilder and written to the stream at once,
+ * instead of one print per cell.
+ * In ANSI cursor mode only the first frame (and every won frame) is drawn in full; after that only the cells
+ * that changed are redrawn in place, by moving the cursor to them and then back where it was, so prompts and
+ * messages printed under the board stay. The lines under the board are made the terminal's scrolling region,
+ * so those messages scroll there without moving the board away from where the cursor moves expect it.
+ */
+public class ConsoleRenderer {
+    private static final String ANSI_BOLD = "\u001B[1m";
+    private static final String ANSI_RESET = "\u001B[0m";
+    private static final String ANSI_RED = "\u001B[31m";
+    private static final String ANSI_BLUE = "\u001B[34m";
+    private static final String ANSI_CLEAR_SCREEN = "\u001B[2J\u001B[H";
+    private static final String ANSI_SAVE_CURSOR = "\u001B7";
+    private static final String ANSI_RESTORE_CURSOR = "\u001B8";
+    private static final String ANSI_FULL_SCROLL_REGION = "\u001B[r";  //Also moves the cursor home
+    private static final char EMPTY = ' ';
+
+    private static final ConsoleRenderer CONSOLE = new ConsoleRenderer(System.out, Boolean.getBoolean("fourinarow.ansiCursor"));
+
+    private final PrintStream out;
+    private final boolean ansiCursor;
+    private final StringBuilder frame = new StringBuilder();
+
+    //What the screen shows, for ANSI cursor mode; null until a full frame is drawn
+    private char[] shown;
+    private int shownRows, shownCols;
+
+    public ConsoleRenderer(PrintStream out, boolean ansiCursor) {
+        this.out = out;
+        this.ansiCursor = ansiCursor;
+    }
+
+    /**
+     * @return The renderer for System.out, in ANSI cursor mode if the fourinarow.ansiCursor property is true
+     */
+    public static ConsoleRenderer console() {
+        return CONSOLE;
+    }
+
+    /**
+     * Draws the grid, or in ANSI cursor mode only what changed since the last frame
+     */
+    public synchronized void render(Grid grid) {
+        frame.setLength(0);
+        if (ansiCursor && shown != null && shownRows == grid.getRows() && shownCols == grid.getCols()) {
+            appendChanges(grid);
+        } else {
+            if (ansiCursor) {
+                frame.append(ANSI_FULL_SCROLL_REGION).append(ANSI_CLEAR_SCREEN);
+                remember(grid);
+            }
+            appendGrid(grid);
+            if (ansiCursor) {
+                //Scroll only the lines under the board, then put the cursor back on the first of them
+                int underBoard = grid.getRows() * 2 + 1;
+                frame.append("\u001B[").append(underBoard).append(";r");
+                frame.append("\u001B[").append(underBoard).append(";1H");
+            }
+        }
+        write();
+    }
+
+    /**
+     * Draws the whole grid with the winning series in bold
+     */
+    public synchronized void renderWon(Grid grid, Coordinates coordinates) {
+        frame.setLength(0);
+        if (shown != null) {
+            //Let the won frame scroll the whole screen, printed where the cursor is
+            frame.append(ANSI_SAVE_CURSOR).append(ANSI_FULL_SCROLL_REGION).append(ANSI_RESTORE_CURSOR);
+        }
+        shown = null;  //The won frame has its own layout, the next frame starts over
+        appendStars(grid.getCols());  //Line separator to make it clearer
+        for (int row = grid.getRows() - 1; row >= 0; row--) {
+            frame.append("| ");
+            for (int col = 0; col < grid.getCols(); col++) {
+                //Check if the current cell is part of the winning sequence
+                appendCell(grid.getCell(row, col), isPartOfWinningSequence(row, col, coordinates));
+                frame.append(" |");
+            }
+            frame.append(System.lineSeparator());
+            appendDashes(grid.getCols());
+        }
+        write();
+    }
+
+    /**
+     * Makes the next frame a full one, for when something else has written over the board
+     */
+    public synchronized void reset() {
+        shown = null;
+    }
+
+    private void appendGrid(Grid grid) {
+        for (int row = grid.getRows() - 1; row >= 0; row--) {  //Start from the topmost row
+            //The cells with | between them
+            frame.append('|');
+            for (int col = 0; col < grid.getCols(); col++) {
+                appendCell(grid.getCell(row, col), false);
+                if (col < grid.getCols() - 1) {
+                    frame.append("||");  // Separator for middle columns
+                }
+            }
+            frame.append(" |").append(System.lineSeparator());  //End the row with a |
+            appendDashes(grid.getCols());
+        }
+    }
+
+    /**
+     * Moves the cursor to every changed cell and redraws it, then back where it was
+     */
+    private void appendChanges(Grid grid) {
+        frame.append(ANSI_SAVE_CURSOR);
+        for (int row = 0; row < shownRows; row++) {
+            for (int col = 0; col < shownCols; col++) {
+                Character cell = grid.getCell(row, col);
+                char now = (cell == null) ? EMPTY : cell;
+                int index = row * shownCols + col;
+                if (shown[index] != now) {
+                    shown[index] = now;
+                    //Rows are drawn top first, two lines each; after the leading |, every cell takes 5 characters
+                    frame.append("\u001B[").append((shownRows - 1 - row) * 2 + 1).append(';').append(col * 5 + 2).append('H');
+                    appendCell(cell, false);
+                }
+            }
+        }
+        frame.append(ANSI_RESTORE_CURSOR);
+    }
+
+    private void remember(Grid grid) {
+        shownRows = grid.getRows();
+        shownCols = grid.getCols();
+        shown = new char[shownRows * shownCols];
+        for (int row = 0; row < shownRows; row++) {
+            for (int col = 0; col < shownCols; col++) {
+                Character cell = grid.getCell(row, col);
+                shown[row * shownCols + col] = (cell == null) ? EMPTY : cell;
+            }
+        }
+    }
+
+    /**
+     * A single cell, in the desired style (bold and color)
+     * @param cell The letter in the cell or <b>null</b> for empty space
+     * @param isWinningCell Is part of the winning sequence
+     */
+    private void appendCell(Character cell, boolean isWinningCell) {
+        if (cell == null) {
+            frame.append("   ");
+            return;
+        }
+        String color = (cell == 'X') ? ANSI_RED : (cell == 'O') ? ANSI_BLUE : ANSI_RESET;
+        frame.append(' ').append(color);
+        if (isWinningCell) {
+            frame.append(ANSI_BOLD);
+        }
+        frame.append(cell).append(ANSI_RESET).append(' ');
+    }
+
+    private void appendDashes(int cols) {
+        for (int col = 0; col < cols; col++) {
+            frame.append("-----");  //Five dashes for each cell floor
+        }
+        frame.append(System.lineSeparator());
+    }
+
+    private void appendStars(int cols) {
+        for (int col = 0; col < cols; col++) {
+            frame.append("*****");
+        }
+        frame.append(System.lineSeparator());
+    }
+
+    /**
+     * Writes the frame in one go
+     */
+    private void write() {
+        out.print(frame);
+        out.flush();
+    }
+
+    /**
+     * Checks if the cell is part of the winning sequence (X is the row and Y the column)
+     * @return true if the cell at row, col is part of the winning sequence
+     */
+    private static boolean isPartOfWinningSequence(int row, int col, Coordinates coordinates) {
+        int startX = coordinates.getStartX();
+        int startY = coordinates.getStartY();
+        int endX = coordinates.getEndX();
+        int endY = coordinates.getEndY();
+
+        //Check if the current cell is within the range of the winning sequence
+        if (startX == endX) {
+            //Horizontal winning sequence
+            return row == startX && col >= Math.min(startY, endY) && col <= Math.max(startY, endY);
+        } else if (startY == endY) {
+            //Vertical winning sequence
+            return col == startY && row >= Math.min(startX, endX) && row <= Math.max(startX, endX);
+        } else if (Math.abs(startX - endX) == Math.abs(startY - endY)) {
+            //Diagonal winning sequence, walk it from the start
+            int dx = (endX > startX) ? 1 : -1;  // Direction for row
+            int dy = (endY > startY) ? 1 : -1;  // Direction for col
+            for (int i = 0; i <= Math.abs(endX - startX); i++) {
+                if (row == startX + i * dx && col == startY + i * dy) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
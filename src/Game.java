@@ -13,7 +13,8 @@ public class Game {
     private boolean isGameOver = false;
     private boolean isSessionOver = false;
     private boolean isAnotherRoundCalled = false;
-    private boolean anotherRoundInProgress = false;
+
+    private GameRecordWriter recorder;  //Archives every round's moves when set
 
     //Avoiding "Magic Numbers":
     static final int NUM_MENU_OPTIONS = 3; //Number of options in main menu
@@ -30,16 +31,31 @@ public class Game {
         Scanner scanner = new Scanner(System.in);
         int rows = getRowCount(scanner);
         int cols = getColumnCount(scanner);
-        grid = new Grid(rows, cols);
         numToWin = getWinningLineLength(scanner, Math.min(cols, rows));
+        grid = Grid.create(rows, cols, numToWin);
+    }
+
+    /**
+     * A game with a grid but no players, for machine players driven from outside a session (like {@link Tournament})
+     */
+    public Game(int rows, int cols, int numToWin) {
+        this.numToWin = numToWin;
+        grid = Grid.create(rows, cols, numToWin);
     }
 
     public Game(int mode, int rows, int cols, int winLength, String player1Name, String player2Name) {
-        grid = new Grid(rows, cols);
+        this(mode, rows, cols, winLength, player1Name, player2Name, false);
+    }
+
+    /**
+     * @param unbeatable For games against the machine: true for the solver-backed machine, false for the smart one
+     */
+    public Game(int mode, int rows, int cols, int winLength, String player1Name, String player2Name, boolean unbeatable) {
         numToWin = winLength;
+        grid = Grid.create(rows, cols, numToWin);
 
         players[0] = new HumanPlayer('X', this, player1Name);
-        players[1] = (mode == 3) ? new HumanPlayer('O', this, player2Name) : new SmartMachinePlayer('O', this);
+        players[1] = (mode == 3) ? new HumanPlayer('O', this, player2Name) : createMachinePlayer('O', unbeatable);
         currentPlayer = players[0];
     }
 
@@ -67,10 +83,10 @@ public class Game {
         final int HUMAN_FIRST = 1, HUMAN_SECOND = 2;
         if (option == HUMAN_FIRST) {
             players[0] = new HumanPlayer('X', this, getNameForHumanPlayer(scanner));
-            players[1] = new SmartMachinePlayer('O', this);
+            players[1] = createMachinePlayer('O', isUnbeatableChosen(scanner));
         }
         else if (option == HUMAN_SECOND) {
-            players[0] = new SmartMachinePlayer('X', this);
+            players[0] = createMachinePlayer('X', isUnbeatableChosen(scanner));
             players[1] = new HumanPlayer('O', this, getNameForHumanPlayer(scanner));
         }
         else {
@@ -81,10 +97,17 @@ public class Game {
         currentPlayer = players[0];
     }
 
+    /**
+     * @param unbeatable true for the solver-backed machine, false for the smart one
+     */
+    private MachinePlayer createMachinePlayer(char symbol, boolean unbeatable) {
+        return unbeatable ? new UnbeatableMachinePlayer(symbol, this) : new SmartMachinePlayer(symbol, this);
+    }
+
     public static void main(String[] args) {
 
         if (args.length < 1) {
-            System.err.println("Usage: java FourInARow <history_file>");
+            System.err.println("Usage: java FourInARow <history_file> [games_file]");
             System.exit(1);
         }
 
@@ -112,8 +135,25 @@ public class Game {
         //Adding the players to the DB
         StatisticsHandler.addPlayers(game.players);
 
+        //Every round's moves, if asked for
+        if (args.length > 1) {
+            try {
+                game.setRecorder(new GameRecordWriter(new File(args[1])));
+            } catch (IOException e) {
+                System.err.println("Error opening the games file, rounds won't be recorded: " + e.getMessage());
+            }
+        }
+
         game.play(); //Gameplay loop
 
+        if (game.recorder != null) {
+            try {
+                game.recorder.close();
+            } catch (IOException e) {
+                System.err.println("An error occurred while writing the games file: " + e.getMessage());
+            }
+        }
+
         /*
         The win/Loss is updated in the players object during the game's rounds
         This updates their total games played (still not writing to the DB)
@@ -125,7 +165,7 @@ public class Game {
 
         //Writes to the file
         StatisticsHandler.writeToFile(pastGames);
-        StatisticsHandler.printStatsFromFile();
+        StatisticsHandler.printStatsFromFile(game.players);  //Just this session's players
     }
 
     /**
@@ -137,55 +177,73 @@ public class Game {
             currentPlayer = players[0];
             System.out.println("Starting new game...");
 
-            // Start new threads for each player for the new round
-            Thread player1Thread = new Thread(players[0]);
-            Thread player2Thread = new Thread(players[1]);
+            playRound();
 
-            player1Thread.start();
-            player2Thread.start();
+            playAnotherRound();
+        }
+    }
 
-            try {
-                player1Thread.join();
-                player2Thread.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    /**
+     * Plays one round on the calling thread: the current player moves, then the turn passes with a plain call.
+     * A human's move blocks here on their input, which is all the waiting the round needs.
+     */
+    private void playRound() {
+        GameRecord record = (recorder == null) ? null : new GameRecord(grid.getRows(), grid.getCols(), numToWin,
+                players[0].getPlayerName(), players[1].getPlayerName(), System.currentTimeMillis());
+        while (!isGameOver) {
+            long turnStarted = System.nanoTime();
+            currentPlayer.makeMove();
+            if (record != null) {
+                record.addMove(grid.getLastCol(), (System.nanoTime() - turnStarted) / 1000);
             }
 
-            playAnotherRound();
+            if (currentPlayer.endMove()) {
+                if (record != null) {
+                    archive(record);
+                }
+                break;
+            }
+
+            switchTurn();
         }
     }
 
     /**
-     * Handles playing another round: Prompts, switches and resets.
+     * Writes the finished round to the recorder
      */
-    public synchronized void playAnotherRound() {
-        if (anotherRoundInProgress) return;  // Prevent double call
-        anotherRoundInProgress = true;
-        //System.out.println("Prompting for another round...");
+    private void archive(GameRecord record) {
+        if (gameRules.checkWinAt(grid.getLastRow(), grid.getLastCol())) {
+            record.setResult(currentPlayer == players[0] ? GameRecord.Result.FIRST_WON : GameRecord.Result.SECOND_WON);
+        }
+        try {
+            recorder.append(record);
+        } catch (IOException e) {
+            System.err.println("An error occurred while recording the game: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Handles playing another round: Prompts, switches and resets.
+     */
+    public void playAnotherRound() {
         if (promptAnotherRound()) {
             resetGrid();
             switchStarter();
             isAnotherRoundCalled = true;
             isGameOver = false;
             System.out.println("Another round starting...");
-            notifyAll();  // Notify all waiting threads that the game is ready for the next round
         } else {
             isSessionOver = true;
             System.out.println("Session is over.");
-            notifyAll();  // Notify all waiting threads that the session is over
             StatisticsHandler.printLocalWinsAndLosses(players);
         }
-
-
-        anotherRoundInProgress = false;  // Reset flag
     }
 
     /**
      * Asks the user for another round
      * @return true if user selected Y or y
      */
-    private synchronized boolean promptAnotherRound() {
+    private boolean promptAnotherRound() {
         System.out.println("Would you like to play again? (y/n)");
         Scanner scanner = new Scanner(System.in);
         char ans = scanner.next().charAt(0);
@@ -210,26 +268,10 @@ public class Game {
      */
     public void resetGrid() {
         grid.clear();
-        notifyAll();
     }
 
-    public synchronized void switchTurn() {
+    public void switchTurn() {
         currentPlayer = (currentPlayer == players[0]) ? players[1] : players[0];
-        //System.out.println("Switching turn. New current player: " + currentPlayer.getPlayerName());
-        notifyAll(); // Notify all threads waiting for their turn
-    }
-
-    public synchronized void waitForTurn(Player player) {
-        while (currentPlayer != player && !isGameOver) {
-            //System.out.println(player.getPlayerName() + " is waiting for their turn...");
-            try {
-                player.waiting = true;
-                wait();  // Wait for turn
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        //System.out.println(player.getPlayerName() + "'s turn has started.");
     }
 
     /**
@@ -261,6 +303,13 @@ public class Game {
         return grid;
     }
 
+    /**
+     * @param recorder Where to archive every finished round, or <b>null</b> to stop archiving
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
     public boolean isGameOver() {
         return isGameOver;
     }
@@ -378,4 +427,25 @@ public class Game {
         System.out.println("Enter name for the human player: ");
         return scanner.next();
     }
+
+    /**
+     * Asks how strong the machine should be
+     * @param scanner Scanner for input
+     * @return true for the unbeatable machine (perfect on 6x7 with 4 to win), false for the smart one
+     */
+    private static boolean isUnbeatableChosen(Scanner scanner) {
+        int choice = 0;
+        while (choice != 1 && choice != 2) {
+            System.out.println("""
+                Machine difficulty:
+                1. Smart
+                2. Unbeatable (perfect on 6x7 with 4 to win)
+                Your choice:""");
+            choice = scanner.nextInt();
+            if (choice != 1 && choice != 2) {
+                System.err.println("Error: Invalid choice: " + choice);
+            }
+        }
+        return choice == 2;
+    }
 }
\ No newline at end of file
@@ -2,32 +2,79 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class GamePanel extends JPanel {
+    static final int CELL_SIZE = 80, TOKEN_MARGIN = 10, TOKEN_SIZE = 60;
+    static final long MACHINE_TIME_LIMIT_MILLIS = 1000;
+    private static final int INDICATOR_HEIGHT = 24;
+
+    //Machines think here, never on the Swing thread
+    private static final ExecutorService MACHINE_POOL = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "machine-move");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //Tokens are drawn once and then copied, shared by every panel
+    private static final BufferedImage RED_TOKEN = createToken(Color.RED);
+    private static final BufferedImage YELLOW_TOKEN = createToken(Color.YELLOW);
+
     private final Game game;
     private final Grid grid;
     private final GameRules rules;
+    private transient BufferedImage board;  //The blue field with its holes, rebuilt only when the size changes
+    private transient CompletableFuture<Integer> machineMove;  //The move being computed, null when the machine isn't thinking
 
     public GamePanel(Game game) {
         this.game = game;
         this.grid = game.getGrid();  // Get Grid from Game
         this.rules = game.gameRules; // Get GameRules from Game
 
-        int width = grid.getCols() * 80;  // 80px per column
-        int height = grid.getRows() * 80; // 80px per row
+        int width = grid.getCols() * CELL_SIZE;  // 80px per column
+        int height = grid.getRows() * CELL_SIZE; // 80px per row
 
         setPreferredSize(new Dimension(width, height));
         setBackground(Color.BLUE);
 
+        for (Player player : game.getPlayers()) {
+            if (player instanceof SmartMachinePlayer machine) {
+                machine.setTimeLimitMillis(MACHINE_TIME_LIMIT_MILLIS);
+            }
+        }
+
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                int col = e.getX() / 80;
-                dropToken(col);
+                int col = e.getX() / CELL_SIZE;
+                if (machineMove == null && !(game.getCurrentPlayer() instanceof MachinePlayer)) {
+                    dropToken(col);  //Clicks while the machine plays are ignored
+                }
             }
         });
     }
 
+    /**
+     * Starts the machine's move once the panel is on screen, in case the machine goes first
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        requestMachineMoveIfNeeded();
+    }
+
+    /**
+     * The panel is leaving the window (new game, window closed): stop any machine that's still thinking
+     */
+    @Override
+    public void removeNotify() {
+        cancelMachineMove();
+        super.removeNotify();
+    }
+
     public void dropToken(int col) {
         try {
             int row = grid.findEmptyRowInColumn(col);
@@ -37,51 +84,142 @@ public class GamePanel extends JPanel {
             }
 
             grid.updateGrid(game.getCurrentPlayer().getSymbol(), col);
-            repaint();
+            repaint(col * CELL_SIZE, 0, CELL_SIZE, getHeight());  //Only the column that changed
 
             grid.printGrid();
             System.out.println();
 
-            if (rules.checkGameOver(game.getCurrentPlayer())) {
+            if (rules.checkWinAt(row, col)) {
                 JOptionPane.showMessageDialog(this, game.getCurrentPlayer().getSymbol() + " Wins!");
                 grid.clear();
+                repaint();
             } else if (grid.isGridFull()) {
                 JOptionPane.showMessageDialog(this, "It's a draw!");
                 grid.clear();
+                repaint();
             }
 
             game.switchTurn();
+            requestMachineMoveIfNeeded();
         } catch (FullCollumnException ex) {
             JOptionPane.showMessageDialog(this, "Column full! Choose another.");
         }
     }
 
+    /**
+     * If it's a machine's turn, asks it for a move on the background pool and shows that it's thinking.
+     * The move is played back on the Swing thread, unless it was cancelled meanwhile.
+     */
+    private void requestMachineMoveIfNeeded() {
+        if (machineMove != null || !(game.getCurrentPlayer() instanceof SmartMachinePlayer machine)) {
+            return;
+        }
+        CompletableFuture<Integer> move = machine.chooseColumnAsync(MACHINE_POOL);
+        machineMove = move;
+        setThinking(true);
+        move.whenComplete((col, error) -> SwingUtilities.invokeLater(() -> {
+            if (machineMove != move) {
+                return;  //Cancelled, the game has moved on
+            }
+            machineMove = null;
+            setThinking(false);
+            if (error != null) {
+                System.err.println("Error: the machine couldn't pick a move: " + error.getMessage());
+                return;
+            }
+            dropToken(col);
+        }));
+    }
+
+    /**
+     * Stops the machine's search and forgets its move
+     */
+    public void cancelMachineMove() {
+        if (machineMove == null) {
+            return;
+        }
+        machineMove.cancel(true);
+        machineMove = null;
+        if (game.getCurrentPlayer() instanceof SmartMachinePlayer machine) {
+            machine.stopThinking();
+        }
+        setThinking(false);
+    }
+
+    private void setThinking(boolean thinking) {
+        setCursor(Cursor.getPredefinedCursor(thinking ? Cursor.WAIT_CURSOR : Cursor.DEFAULT_CURSOR));
+        repaint(0, 0, getWidth(), INDICATOR_HEIGHT);
+    }
+
+    /**
+     * Copies the cached board, then the token sprites of the cells inside the area being repainted
+     */
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        int width = grid.getCols() * CELL_SIZE;
+        int height = grid.getRows() * CELL_SIZE;
+        if (board == null || board.getWidth() != width || board.getHeight() != height) {
+            board = createBoard(grid.getRows(), grid.getCols());
+        }
 
-        // Draw empty board slots
-        g.setColor(Color.WHITE);
-        for (int row = 0; row < grid.getRows(); row++) {
-            for (int col = 0; col < grid.getCols(); col++) {
-                int x = col * 80 + 10;
-                int y = (grid.getRows() - row - 1) * 80 + 10; // Flip row!
-                g.fillOval(x, y, 60, 60);
+        //The board image covers the whole panel, so there's no need to clear it first
+        g.drawImage(board, 0, 0, null);
+
+        // Draw tokens, only the ones that need repainting
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, width, height);
+        }
+        int firstCol = Math.max(0, clip.x / CELL_SIZE);
+        int lastCol = Math.min(grid.getCols() - 1, (clip.x + clip.width - 1) / CELL_SIZE);
+        int topRow = Math.min(grid.getRows() - 1, grid.getRows() - 1 - clip.y / CELL_SIZE);
+        int bottomRow = Math.max(0, grid.getRows() - 1 - (clip.y + clip.height - 1) / CELL_SIZE);
+        for (int col = firstCol; col <= lastCol; col++) {
+            for (int row = bottomRow; row <= topRow; row++) {
+                Character cell = grid.getCell(row, col);
+                if (cell == null) {
+                    break;  //Nothing stacks above an empty cell
+                }
+                int x = col * CELL_SIZE + TOKEN_MARGIN;
+                int y = (grid.getRows() - row - 1) * CELL_SIZE + TOKEN_MARGIN; // Flip row!
+                g.drawImage(cell == 'X' ? RED_TOKEN : YELLOW_TOKEN, x, y, null);
             }
         }
 
-        // Draw tokens
-        for (int row = 0; row < grid.getRows(); row++) {
-            for (int col = 0; col < grid.getCols(); col++) {
-                Character cell = grid.getBoard()[row][col];
-                if (cell != null) {
-                    g.setColor(cell == 'X' ? Color.RED : Color.YELLOW);
-                    int x = col * 80 + 10;
-                    int y = (grid.getRows() - row - 1) * 80 + 10; // Flip row!
-                    g.fillOval(x, y, 60, 60);
-                }
+        if (machineMove != null) {
+            g.setColor(Color.WHITE);
+            g.drawString("Machine is thinking...", TOKEN_MARGIN, INDICATOR_HEIGHT - 8);
+        }
+    }
+
+    /**
+     * Draws the blue field with a white hole for every cell
+     */
+    private static BufferedImage createBoard(int rows, int cols) {
+        BufferedImage image = new BufferedImage(cols * CELL_SIZE, rows * CELL_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setColor(Color.WHITE);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                g.fillOval(col * CELL_SIZE + TOKEN_MARGIN, row * CELL_SIZE + TOKEN_MARGIN, TOKEN_SIZE, TOKEN_SIZE);
             }
         }
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Draws one token on a transparent background
+     */
+    private static BufferedImage createToken(Color color) {
+        BufferedImage image = new BufferedImage(TOKEN_SIZE, TOKEN_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillOval(0, 0, TOKEN_SIZE, TOKEN_SIZE);
+        g.dispose();
+        return image;
     }
 
 }
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+/**
+ * One finished round: the grid's geometry, who moved first and second, every move with how long it took, and the result.
+ * Stored by {@link GameRecordWriter} and read back by {@link GameRecordReader}.
+ */
+public class GameRecord {
+
+    /**
+     * How the round ended
+     */
+    public enum Result {
+        FIRST_WON, SECOND_WON, DRAW
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final String firstPlayer;  //Made the first move
+    private final String secondPlayer;
+    private final long startedAtMillis;
+    private int[] columns = new int[16];
+    private long[] moveMicros = new long[16];
+    private int moveCount;
+    private Result result = Result.DRAW;
+
+    public GameRecord(int rows, int cols, int numToWin, String firstPlayer, String secondPlayer, long startedAtMillis) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numToWin = numToWin;
+        this.firstPlayer = firstPlayer;
+        this.secondPlayer = secondPlayer;
+        this.startedAtMillis = startedAtMillis;
+    }
+
+    /**
+     * Adds the next move, the first player's and the second's alternating
+     * @param col The column, 0-based
+     * @param micros How long the player took over it
+     */
+    public void addMove(int col, long micros) {
+        if (moveCount == columns.length) {
+            columns = Arrays.copyOf(columns, moveCount * 2);
+            moveMicros = Arrays.copyOf(moveMicros, moveCount * 2);
+        }
+        columns[moveCount] = col;
+        moveMicros[moveCount] = Math.max(0, micros);
+        moveCount++;
+    }
+
+    public void setResult(Result result) {
+        this.result = result;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    public String getFirstPlayer() {
+        return firstPlayer;
+    }
+
+    public String getSecondPlayer() {
+        return secondPlayer;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return The move's column, 0-based
+     */
+    public int getColumn(int move) {
+        return columns[move];
+    }
+
+    public long getMoveMicros(int move) {
+        return moveMicros[move];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder moves = new StringBuilder();
+        for (int i = 0; i < moveCount; i++) {
+            moves.append(' ').append(columns[i] + 1);  //1-based, like the console
+        }
+        return firstPlayer + " vs " + secondPlayer + " on " + rows + "x" + cols + ", " + numToWin + " to win: "
+                + result + " after " + moveCount + " moves:" + moves;
+    }
+}
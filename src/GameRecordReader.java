@@ -0,0 +1,166 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the records of a {@link GameRecordWriter} file one at a time, so only the current record is in memory.
+ * A record cut short (a crash mid-write) or one that doesn't decode ends the file.
+ * Usage: java GameRecordReader games_file [list]
+ */
+public class GameRecordReader implements AutoCloseable {
+    private static final int MAX_RECORD_SIZE = 1 << 24;
+
+    private final DataInputStream in;
+    private long validLength;  //Bytes up to the end of the last record read whole
+    private byte[] bytes = new byte[1024];
+
+    public GameRecordReader(File file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            if (in.readInt() != GameRecordWriter.MAGIC || in.readByte() != GameRecordWriter.VERSION) {
+                in.close();
+                throw new IOException("Not a game record file: " + file.getName());
+            }
+            validLength = GameRecordWriter.HEADER_SIZE;
+        } catch (EOFException e) {
+            validLength = 0;  //Empty, or not even a whole header
+        }
+    }
+
+    /**
+     * @return The next record, or <b>null</b> at the end of the file
+     */
+    public GameRecord next() throws IOException {
+        if (validLength == 0) {
+            return null;
+        }
+        try {
+            int length = (int) readVarLong();
+            if (length <= 0 || length > MAX_RECORD_SIZE) {
+                return null;
+            }
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            in.readFully(bytes, 0, length);
+
+            GameRecord record = decode(ByteBuffer.wrap(bytes, 0, length));
+            validLength += varLongSize(length) + length;
+            return record;
+        } catch (EOFException | BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static GameRecord decode(ByteBuffer body) {
+        int rows = (int) readVarLong(body);
+        int cols = (int) readVarLong(body);
+        int numToWin = (int) readVarLong(body);
+        String first = readString(body);
+        String second = readString(body);
+        GameRecord.Result result = GameRecord.Result.values()[body.get()];
+        long startedAt = readVarLong(body);
+        int moveCount = (int) readVarLong(body);
+        if (moveCount < 0 || moveCount > body.remaining()) {
+            throw new IllegalArgumentException("Bad move count " + moveCount);  //Every move takes 2 bytes at least
+        }
+
+        int[] columns = new int[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            columns[i] = (int) readVarLong(body);
+        }
+        GameRecord record = new GameRecord(rows, cols, numToWin, first, second, startedAt);
+        for (int i = 0; i < moveCount; i++) {
+            record.addMove(columns[i], readVarLong(body));
+        }
+        record.setResult(result);
+        return record;
+    }
+
+    /**
+     * @return How many bytes from the start of the file hold whole records, as far as read
+     */
+    public long getValidLength() {
+        return validLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java GameRecordReader <games_file> [list]");
+            System.exit(1);
+        }
+        boolean list = args.length > 1 && args[1].equalsIgnoreCase("list");
+        long games = 0, moves = 0;
+        long[] results = new long[GameRecord.Result.values().length];
+
+        try (GameRecordReader reader = new GameRecordReader(new File(args[0]))) {
+            GameRecord record;
+            while ((record = reader.next()) != null) {
+                games++;
+                moves += record.getMoveCount();
+                results[record.getResult().ordinal()]++;
+                if (list) {
+                    System.out.println(record);
+                }
+            }
+            System.out.println(games + " games, " + moves + " moves, " + reader.getValidLength() + " bytes");
+        }
+        for (GameRecord.Result result : GameRecord.Result.values()) {
+            System.out.println(result + ": " + results[result.ordinal()]);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends {@link GameRecord}s to a file in a compact binary format, buffered and written through a FileChannel.
+ * The file starts with a 5-byte header (magic "4GMS" and a version byte); then each record is its length
+ * as a varint followed by:
+ *   rows, cols, numToWin                     - varints
+ *   first player, second player              - varint byte length + UTF-8
+ *   result                                   - one byte, the {@link GameRecord.Result} ordinal
+ *   start time                               - varint milliseconds since the epoch
+ *   move count, then every column            - varints, one byte each below 128 columns
+ *   every move's time                        - varint microseconds
+ * A varint holds 7 bits per byte, low bits first, with the high bit set on every byte but the last.
+ * A machine-against-machine 6x7 game of 13 moves takes about 75 bytes: each column is one byte, a move's time two or three.
+ * Opening an existing file cuts off a record a crash left half written, so new records follow the last good one.
+ * Appending takes a lock, so one writer can be shared by threads; it's a ReentrantLock rather than synchronized
+ * so a virtual thread writing the buffer out doesn't pin its carrier.
+ */
+public class GameRecordWriter {
+    static final int MAGIC = 0x34474D53;  //"4GMS"
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 5;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);  //Records not written yet
+    private ByteBuffer body = ByteBuffer.allocate(1024);  //One record, before its length is known
+
+    public GameRecordWriter(File file) throws IOException {
+        long valid = 0;
+        if (file.exists() && file.length() > 0) {
+            try (GameRecordReader reader = new GameRecordReader(file)) {
+                while (reader.next() != null) {
+                    //Find where the last intact record ends
+                }
+                valid = reader.getValidLength();
+            }
+        }
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (valid == 0) {
+            channel.truncate(0);
+            buffer.putInt(MAGIC).put(VERSION);
+        } else if (valid < channel.size()) {
+            System.err.println("Warning: Dropped a torn record at the end of " + file.getName());
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+    }
+
+    /**
+     * Adds a record; it reaches the file when the buffer fills up, on {@link #flush()} or on {@link #close()}
+     */
+    public void append(GameRecord record) throws IOException {
+        lock.lock();
+        try {
+            encode(record);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void encode(GameRecord record) throws IOException {
+        body.clear();
+        putVarLong(record.getRows());
+        putVarLong(record.getCols());
+        putVarLong(record.getNumToWin());
+        putString(record.getFirstPlayer());
+        putString(record.getSecondPlayer());
+        ensureBody(1);
+        body.put((byte) record.getResult().ordinal());
+        putVarLong(record.getStartedAtMillis());
+        putVarLong(record.getMoveCount());
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            putVarLong(record.getColumn(i));
+        }
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            putVarLong(record.getMoveMicros(i));
+        }
+        body.flip();
+
+        int length = body.remaining() + 5;  //A varint int takes at most 5 bytes
+        if (buffer.remaining() < length) {
+            write();
+            if (buffer.capacity() < length) {
+                buffer = ByteBuffer.allocate(length);
+            }
+        }
+        putVarLong(buffer, body.remaining());
+        buffer.put(body);
+    }
+
+    /**
+     * Writes the buffered records to the file
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            write();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            write();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(bytes.length);
+        ensureBody(bytes.length);
+        body.put(bytes);
+    }
+
+    private void putVarLong(long value) {
+        ensureBody(10);
+        putVarLong(body, value);
+    }
+
+    /**
+     * Makes room for the given bytes in the record being encoded
+     */
+    private void ensureBody(int bytes) {
+        if (body.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(body.capacity() * 2, body.position() + bytes));
+            body.flip();
+            body = larger.put(body);
+        }
+    }
+
+    /**
+     * Puts a non-negative value as a varint: 7 bits per byte, low bits first, high bit set when more follow
+     */
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -1,6 +1,7 @@
 public class GameRules {
     private final Game game;
     private final Coordinates winSeq;
+    private final LineCursor lines = new LineCursor();  //Reused by every full-board scan
 
     public Coordinates getWinSeq() {
         return winSeq;
@@ -13,29 +14,15 @@ public class GameRules {
 
     //Due to a change in the machine's logic this one is unnecessary
     /**
-     * Checks all the columns for winning possibility
+     * Checks all the lines for winning possibility
      * No need anymore because changed the machine's logic at the end
      * @return true if there is a move that can win the game, false otherwise.
      */
 
     public boolean isThereWinningMove(Character symbol) {
-        //Column check
-        for (int col = 0; col < game.getGrid().getCols(); col++) {
-            if (oneLeftToWin(game.getGrid().getColumn(col), symbol)) {
-                return true;
-            }
-        }
-
-        //Row check
-        for (int row = 0; row < game.getGrid().getRows(); row++) {
-            if (oneLeftToWin(game.getGrid().getRow(row), symbol)) {
-                return true;
-            }
-        }
-
-        //Diagonals check
-        for (int col = 0; col < game.getGrid().getCols(); col++) {
-            if (oneLeftToWin(game.getGrid().getDiagonalFromLeft(col), symbol) || oneLeftToWin(game.getGrid().getDiagonalFromRight(col), symbol)) {
+        lines.start(game.getGrid(), game.getNumToWin());
+        while (lines.next()) {
+            if (oneLeftToWin(lines, symbol)) {
                 return true;
             }
         }
@@ -50,11 +37,12 @@ public class GameRules {
      * @param symbol The player's symbol ('X' or 'O').
      * @return true if there is a possible win in the line, false otherwise.
      */
-    public boolean oneLeftToWin(Character[] line, Character symbol) {
+    public boolean oneLeftToWin(LineCursor line, Character symbol) {
         int charCounter = 0;
         int emptyCount = 0;
 
-        for (Character character : line) {
+        for (int i = 0; i < line.length(); i++) {
+            Character character = line.cellAt(i);
             if (character != null && character.equals(symbol)) {
                 charCounter++;
             } else if (character == null) {
@@ -79,10 +67,40 @@ public class GameRules {
      * @return true if it was a winning move
      */
     public boolean checkGameOver(Player player) {
-        game.setGameOver(checkWin(player.getSymbol()) | game.getGrid().isGridFull());
+        Grid grid = game.getGrid();
+        game.setGameOver(checkWinAt(grid.getLastRow(), grid.getLastCol()) | grid.isGridFull());
         return game.isGameOver();
     }
 
+    /**
+     * Checks if the token at [row][col] completes a winning line.
+     * Only walks the four directions out from that cell, so it's meant to be called right after a drop.
+     * @param row The row the token landed in.
+     * @param col The column the token was dropped into.
+     * @return true if the token is part of a winning line, false otherwise.
+     */
+    public boolean checkWinAt(int row, int col) {
+        Grid grid = game.getGrid();
+        if (row < 0 || col < 0 || grid.getCell(row, col) == null) {
+            return false;
+        }
+
+        for (int[] direction : Grid.DIRECTIONS) {
+            int dRow = direction[0], dCol = direction[1];
+            int backward = grid.countRun(row, col, -dRow, -dCol);
+            int forward = grid.countRun(row, col, dRow, dCol);
+            if (backward + 1 + forward >= game.getNumToWin()) {
+                // Save the winning sequence coordinates
+                winSeq.setStartX(row - backward * dRow);
+                winSeq.setStartY(col - backward * dCol);
+                winSeq.setEndX(row + forward * dRow);
+                winSeq.setEndY(col + forward * dCol);
+                return true;
+            }
+        }
+        return false;
+    }
+
 
     /**
      * Checks if symbol won
@@ -90,22 +108,12 @@ public class GameRules {
      * @return true if the player has won, false otherwise.
      */
     public boolean checkWin(Character symbol) {
-        // Rows
-        for (int row = 0; row < game.getGrid().getRows(); row++) {
-            if (hasWinningSequence(game.getGrid().getRow(row), symbol, 'r', row, 0)) {
-                return true;
-            }
-        }
-        // Columns
-        for (int col = 0; col < game.getGrid().getCols(); col++) {
-            if (hasWinningSequence(game.getGrid().getColumn(col), symbol, 'c', 0, col)) {
-                return true;
-            }
+        if (game.getGrid() instanceof BitboardGrid bitboard) {
+            return bitboard.checkWin(symbol, game.getNumToWin(), winSeq);
         }
-        // Diagonals
-        for (int col = 0; col < game.getGrid().getCols(); col++) {
-            if (hasWinningSequence(game.getGrid().getDiagonalFromLeft(col), symbol, 'd', 0, col) ||
-                    hasWinningSequence(game.getGrid().getDiagonalFromRight(col), symbol, 'd', 0, col)) {
+        lines.start(game.getGrid(), game.getNumToWin());
+        while (lines.next()) {
+            if (hasWinningSequence(lines, symbol)) {
                 return true;
             }
         }
@@ -113,30 +121,29 @@ public class GameRules {
     }
 
     /**
-     * Checks if a given line contains a winning sequence of symbols.
+     * Checks if a given line contains a winning sequence of symbols, and saves its coordinates if it does.
      *
      * @param line           The line (row, column, or diagonal) being checked.
      * @param symbol         The player's symbol ('X' or 'O').
-     * @param lineIdentifier row, column or diagonal. needed for saving coordinates
-     * @param startRow       needed for coordinates
-     * @param startCol       needed for coordinates
      * @return true if the line contains a winning sequence, false otherwise.
      */
-    private boolean hasWinningSequence(Character[] line, Character symbol, char lineIdentifier, int startRow, int startCol) {
+    private boolean hasWinningSequence(LineCursor line, Character symbol) {
         int count = 0;
-        int firstIndex = -1, lastIndex;
+        int firstIndex = -1;
 
-        for (int i = 0; i < line.length; i++) {
-            if (line[i] != null && line[i].equals(symbol)) {
+        for (int i = 0; i < line.length(); i++) {
+            Character cell = line.cellAt(i);
+            if (cell != null && cell.equals(symbol)) {
                 count++;
                 if (count == 1) {
                     firstIndex = i;
                 }
                 if (count == game.getNumToWin()) {
-                    lastIndex = i;
-
                     // Save the winning sequence coordinates
-                    saveWinningSequence(firstIndex, lastIndex, lineIdentifier, startRow, startCol);
+                    winSeq.setStartX(line.rowAt(firstIndex));
+                    winSeq.setStartY(line.colAt(firstIndex));
+                    winSeq.setEndX(line.rowAt(i));
+                    winSeq.setEndY(line.colAt(i));
 
                     return true;
                 }
@@ -147,41 +154,4 @@ public class GameRules {
         }
         return false;
     }
-
-    /**
-     * Save the start and end coordinates of the winning sequence.
-     * This method updates the `winSeq` object with the coordinates of the start and end points of a winning sequence,
-     * depending on whether the sequence is row-based, column-based, or diagonal-based.
-     *
-     * @param firstIndex The index of the first character in the winning sequence within the line (row, column, or diagonal).
-     * @param lastIndex The index of the last character in the winning sequence within the line (row, column, or diagonal).
-     * @param lineIdentifier A character that identifies the type of line being checked:
-     *                       'r' for row, 'c' for column, and 'd' for diagonal.
-     * @param startRow The starting row position for the sequence. Used as the fixed row for row-based sequences or as a reference for diagonal sequences.
-     * @param startCol The starting column position for the sequence. Used as the fixed column for column-based sequences or as a reference for diagonal sequences.
-     */
-
-    private void saveWinningSequence(int firstIndex, int lastIndex, char lineIdentifier, int startRow, int startCol) {
-        if (lineIdentifier == 'r') {
-            // Row-based sequence
-            winSeq.setStartX(startRow);
-            winSeq.setStartY(firstIndex);
-            winSeq.setEndX(startRow);
-            winSeq.setEndY(lastIndex);
-        } else if (lineIdentifier == 'c') {
-            // Column-based sequence
-            winSeq.setStartX(firstIndex);
-            winSeq.setStartY(startCol);
-            winSeq.setEndX(lastIndex);
-            winSeq.setEndY(startCol);
-        } else if (lineIdentifier == 'd') {
-            // Diagonal-based sequence
-            winSeq.setStartX(startRow + firstIndex);
-            winSeq.setStartY(startCol + firstIndex);
-            winSeq.setEndX(startRow + lastIndex);
-            winSeq.setEndY(startCol + lastIndex);
-        }
-    }
-
-
 }
@@ -0,0 +1,288 @@
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Hosts many {@link GameSession}s over TCP on one selector thread. Every connection is one session.
+ * The selector thread owns all sessions; machine moves run on a bounded compute pool and come back
+ * through a queue the selector drains after waking up. Each compute thread keeps its own search engines.
+ * When the pool's queue is full, moves wait in a backlog on the selector thread instead of blocking it.
+ * Usage: java GameServer [port] [computeThreads] [machineMillis] [stats_file] [games_file]
+ */
+public class GameServer {
+    static final int DEFAULT_PORT = 4444;
+    static final long DEFAULT_MACHINE_MILLIS = 200;
+    static final int COMPUTE_QUEUE_SIZE = 1024;
+    static final int MAX_LINE_LENGTH = 256;
+    private static final int BUFFER_SIZE = 1024;
+
+    private final int port;
+    private final long machineMillis;
+    private final ThreadPoolExecutor computePool;
+    private final Queue<Runnable> completed = new ConcurrentLinkedQueue<>();  //Machine moves ready to apply, from the pool
+    private final Queue<Connection> backlog = new ArrayDeque<>();  //Machine moves the pool had no room for
+    private final ThreadLocal<Map<String, SearchEngine>> engines = ThreadLocal.withInitial(GameSession::newEngineCache);  //Per compute thread
+    private GameRecordWriter recorder;  //Shared by every session, null if games aren't archived
+    private Selector selector;
+    private volatile boolean running;
+
+    /**
+     * A client's socket, its session and its pending input and output
+     */
+    private static class Connection {
+        final SocketChannel channel;
+        final GameSession session = new GameSession();
+        final StringBuilder line = new StringBuilder();
+        final Queue<ByteBuffer> output = new ArrayDeque<>();
+        boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public GameServer(int port, int computeThreads, long machineMillis) {
+        this.port = port;
+        this.machineMillis = machineMillis;
+        computePool = new ThreadPoolExecutor(computeThreads, computeThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(COMPUTE_QUEUE_SIZE));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long millis = (args.length > 2) ? Long.parseLong(args[2]) : DEFAULT_MACHINE_MILLIS;
+        if (args.length > 3) {
+            StatisticsHandler.initStatisticsHandler(new File(args[3]));  //Results of finished games go here
+            Runtime.getRuntime().addShutdownHook(new Thread(StatisticsHandler::close));  //Results not flushed yet
+        }
+        GameRecordWriter recorder = (args.length > 4) ? new GameRecordWriter(new File(args[4])) : null;
+        if (recorder != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    recorder.close();  //Whatever is still buffered
+                } catch (IOException e) {
+                    System.err.println("An error occurred while writing the games file: " + e.getMessage());
+                }
+            }));
+        }
+        System.out.println("Serving 4-in-a-row on port " + port + " with " + threads + " compute threads");
+        GameServer server = new GameServer(port, threads, millis);
+        server.setRecorder(recorder);
+        server.run();
+    }
+
+    /**
+     * @param recorder Where every session archives its finished games, or <b>null</b>
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Runs the event loop until {@link #stop()}
+     */
+    public void run() throws IOException {
+        selector = Selector.open();
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            running = true;
+
+            while (running) {
+                selector.select();
+                Runnable done;
+                while ((done = completed.poll()) != null) {
+                    done.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept(server);
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(connection);
+                        }
+                    } catch (IOException e) {
+                        close(connection);
+                    }
+                }
+            }
+        } finally {
+            computePool.shutdownNow();
+            selector.close();
+        }
+    }
+
+    /**
+     * Stops the event loop, safe to call from any thread
+     */
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.session.setRecorder(recorder);
+            channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    /**
+     * Reads what's there and handles every complete line
+     */
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        int read = connection.channel.read(buffer);
+        if (read == -1) {
+            close(connection);
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining() && !connection.closed) {
+            char c = (char) buffer.get();  //The protocol is ASCII
+            if (c == '\n') {
+                handleLine(connection, connection.line.toString());
+                connection.line.setLength(0);
+            } else if (c != '\r') {
+                connection.line.append(c);
+                if (connection.line.length() > MAX_LINE_LENGTH) {
+                    send(connection, "ERR Line too long\n");
+                    close(connection);
+                }
+            }
+        }
+    }
+
+    private void handleLine(Connection connection, String line) {
+        if (line.isBlank()) {
+            return;
+        }
+        GameSession session = connection.session;
+        send(connection, session.handle(line));
+        if (session.isClosed()) {
+            close(connection);
+        } else if (session.startMachineMove()) {
+            dispatchMachineMove(connection);
+        }
+    }
+
+    /**
+     * Hands the machine's move to the compute pool, or to the backlog if the pool is full
+     */
+    private void dispatchMachineMove(Connection connection) {
+        Grid snapshot = connection.session.snapshot();
+        char symbol = connection.session.getMachineSymbol();
+        try {
+            computePool.execute(() -> {
+                try {
+                    int col = GameSession.chooseMachineColumn(engines.get(), snapshot, symbol, machineMillis);
+                    completed.add(() -> finishMachineMove(connection, session -> session.machineMove(col)));
+                } catch (RuntimeException e) {
+                    //Still report back, or the session would wait for this move forever
+                    completed.add(() -> finishMachineMove(connection, session -> session.machineMoveFailed(e.toString())));
+                }
+                selector.wakeup();
+            });
+        } catch (RejectedExecutionException e) {
+            backlog.add(connection);
+        }
+    }
+
+    /**
+     * Runs on the selector thread once the pool has picked the machine's column, or failed to
+     * @param reply Applies the outcome to the session and gives the reply for the client
+     */
+    private void finishMachineMove(Connection connection, Function<GameSession, String> reply) {
+        if (!connection.closed) {
+            send(connection, reply.apply(connection.session));
+        }
+        Connection waiting;
+        while ((waiting = backlog.poll()) != null && waiting.closed) {
+            //Its client left, nothing to compute
+        }
+        if (waiting != null) {
+            dispatchMachineMove(waiting);
+        }
+    }
+
+    /**
+     * Queues text for the client and asks the selector to say when it can be written
+     */
+    private void send(Connection connection, String text) {
+        if (connection.closed || text.isEmpty()) {
+            return;
+        }
+        connection.output.add(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+        try {
+            write(connection);
+        } catch (IOException e) {
+            close(connection);
+        }
+    }
+
+    /**
+     * Writes as much pending output as the socket takes, and waits for OP_WRITE if some is left
+     */
+    private void write(Connection connection) throws IOException {
+        while (!connection.output.isEmpty()) {
+            ByteBuffer next = connection.output.peek();
+            connection.channel.write(next);
+            if (next.hasRemaining()) {
+                break;
+            }
+            connection.output.poll();
+        }
+        SelectionKey key = connection.channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(connection.output.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing a connection: " + e.getMessage());
+        }
+    }
+}
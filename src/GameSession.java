@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One remote player's games against the machine, spoken over a line protocol and independent of the transport.
+ * Commands (columns are 1-based, like the console):
+ *   NAME name                              - names the player in the statistics (default "Remote")
+ *   NEW rows cols numToWin [FIRST|SECOND] - starts a game, the human plays first unless SECOND
+ *   MOVE col                               - drops the human's token
+ *   BOARD                                  - shows the grid, top row first, '.' for empty cells
+ *   QUIT                                   - ends the session
+ * Replies are lines: OK, MOVE col (the machine's move), WIN symbol, DRAW, BOARD row/row/..., BYE and ERR message.
+ * After each command the transport calls {@link #startMachineMove()}; when it says so, the transport computes
+ * {@link #chooseMachineColumn} on a {@link #snapshot()} wherever it likes and hands the column back to {@link #machineMove(int)}.
+ * Finished games are recorded through {@link StatisticsHandler} when the server has initiated it,
+ * and archived move by move when the session has a {@link GameRecordWriter}.
+ * A session is not thread-safe; only its transport's thread may call it.
+ */
+public class GameSession {
+    public static final int MAX_CELLS = 10_000;  //Keeps one client from asking for a huge grid
+
+    public static final String MACHINE_NAME = "Machine";
+
+    private static final int ENGINE_TABLE_SIZE_MB = 16;
+    private static final int MAX_CACHED_ENGINES = 4;  //Board geometries kept per engine cache, the least recently used goes
+
+    private String playerName = "Remote";
+    private Grid grid;  //null until the first NEW
+    private char humanSymbol;
+    private boolean machineToMove;
+    private boolean machineThinking;  //Handed to the transport, waiting for machineMove
+    private boolean over;
+    private boolean closed;
+    private GameRecordWriter recorder;  //Shared by the server's sessions, null if games aren't archived
+    private GameRecord record;  //The game in progress, when archived
+    private long turnStarted;  //System.nanoTime() when the player to move got the turn
+
+    /**
+     * Handles one command line from the client
+     * @param line The command, without its line break.
+     * @return The reply, one or more lines each ending with a line break
+     */
+    public String handle(String line) {
+        String[] words = line.trim().split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "NAME":
+                    return name(words);
+                case "NEW":
+                    return newGame(words);
+                case "MOVE":
+                    return humanMove(words);
+                case "BOARD":
+                    return (grid == null) ? "ERR No game, send NEW\n" : board();
+                case "QUIT":
+                    closed = true;
+                    return "BYE\n";
+                default:
+                    return "ERR Unknown command: " + words[0] + "\n";
+            }
+        } catch (NumberFormatException e) {
+            return "ERR Not a number: " + e.getMessage() + "\n";
+        }
+    }
+
+    private String name(String[] words) {
+        if (words.length < 2 || words[1].equals(MACHINE_NAME)) {
+            return "ERR Usage: NAME name\n";
+        }
+        playerName = words[1];
+        return "OK\n";
+    }
+
+    private String newGame(String[] words) {
+        if (machineThinking) {
+            return "ERR Wait for the machine's move\n";
+        }
+        if (words.length < 4) {
+            return "ERR Usage: NEW rows cols numToWin [FIRST|SECOND]\n";
+        }
+        int rows = Integer.parseInt(words[1]);
+        int cols = Integer.parseInt(words[2]);
+        int numToWin = Integer.parseInt(words[3]);
+        if (rows < Game.MIN_ROW || cols < Game.MIN_COL || (long) rows * cols > MAX_CELLS) {  //long, a huge grid overflows int
+            return "ERR Grid must be at least " + Game.MIN_ROW + "x" + Game.MIN_COL + " and at most " + MAX_CELLS + " cells\n";
+        }
+        if (numToWin < Game.MIN_COL || numToWin > Math.min(rows, cols)) {  //The same bound as the console
+            return "ERR Win length must be between " + Game.MIN_COL + " and " + Math.min(rows, cols) + "\n";
+        }
+        boolean humanFirst = words.length < 5 || !words[4].equalsIgnoreCase("SECOND");
+
+        grid = Grid.create(rows, cols, numToWin);
+        humanSymbol = humanFirst ? 'X' : 'O';
+        machineToMove = !humanFirst;
+        over = false;
+        if (recorder != null) {
+            record = new GameRecord(rows, cols, numToWin, humanFirst ? playerName : MACHINE_NAME,
+                    humanFirst ? MACHINE_NAME : playerName, System.currentTimeMillis());
+        }
+        turnStarted = System.nanoTime();
+        return "OK You are " + humanSymbol + "\n";
+    }
+
+    private String humanMove(String[] words) {
+        if (grid == null || over) {
+            return "ERR No game in progress, send NEW\n";
+        }
+        if (machineToMove) {
+            return "ERR Not your turn\n";
+        }
+        if (words.length < 2) {
+            return "ERR Usage: MOVE col\n";
+        }
+        int col = Integer.parseInt(words[1]) - 1;
+        if (col < 0 || col >= grid.getCols()) {
+            return "ERR Column must be between 1 and " + grid.getCols() + "\n";
+        }
+        if (grid.isColumnFull(col)) {
+            return "ERR Column " + (col + 1) + " is full\n";
+        }
+
+        String result = afterMove(grid.play(humanSymbol, col), humanSymbol, col);
+        machineToMove = !over;
+        return "OK\n" + result;
+    }
+
+    /**
+     * Plays the machine's move, computed by {@link #chooseMachineColumn}
+     * @return The reply for the client
+     */
+    public String machineMove(int col) {
+        machineToMove = false;
+        machineThinking = false;
+        char symbol = getMachineSymbol();
+        if (col < 0 || col >= grid.getCols() || grid.isColumnFull(col)) {
+            return "ERR The machine picked an illegal column\n";
+        }
+        return "MOVE " + (col + 1) + "\n" + afterMove(grid.play(symbol, col), symbol, col);
+    }
+
+    /**
+     * Gives up on the machine's move after computing it failed, so the session isn't left waiting for it
+     * @param reason Why it failed
+     * @return The reply for the client
+     */
+    public String machineMoveFailed(String reason) {
+        machineThinking = false;
+        return "ERR The machine couldn't move: " + reason + "\n";
+    }
+
+    /**
+     * @return WIN or DRAW lines if the move ended the game, otherwise nothing
+     */
+    private String afterMove(boolean won, char symbol, int col) {
+        long now = System.nanoTime();
+        if (record != null) {
+            record.addMove(col, (now - turnStarted) / 1000);
+        }
+        turnStarted = now;
+
+        if (won) {
+            over = true;
+            if (symbol == humanSymbol) {
+                StatisticsHandler.recordWin(playerName, MACHINE_NAME);
+            } else {
+                StatisticsHandler.recordWin(MACHINE_NAME, playerName);
+            }
+            archive(symbol == 'X' ? GameRecord.Result.FIRST_WON : GameRecord.Result.SECOND_WON);
+            return "WIN " + symbol + "\n";
+        }
+        if (grid.isGridFull()) {
+            over = true;
+            StatisticsHandler.recordDraw(playerName, MACHINE_NAME);
+            archive(GameRecord.Result.DRAW);
+            return "DRAW\n";
+        }
+        return "";
+    }
+
+    private void archive(GameRecord.Result result) {
+        if (record == null) {
+            return;
+        }
+        record.setResult(result);
+        try {
+            recorder.append(record);
+        } catch (IOException e) {
+            System.err.println("An error occurred while recording a game: " + e.getMessage());
+        }
+        record = null;
+    }
+
+    private String board() {
+        StringBuilder board = new StringBuilder("BOARD ");
+        for (int row = grid.getRows() - 1; row >= 0; row--) {
+            for (int col = 0; col < grid.getCols(); col++) {
+                Character cell = grid.getCell(row, col);
+                board.append(cell == null ? '.' : cell);
+            }
+            board.append(row > 0 ? '/' : '\n');
+        }
+        return board.toString();
+    }
+
+    /**
+     * @return An empty engine cache for {@link #chooseMachineColumn}, keeping the engines of the
+     *         {@value #MAX_CACHED_ENGINES} most recently used board geometries
+     */
+    public static Map<String, SearchEngine> newEngineCache() {
+        return new LinkedHashMap<>(MAX_CACHED_ENGINES * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SearchEngine> eldest) {
+                return size() > MAX_CACHED_ENGINES;
+            }
+        };
+    }
+
+    /**
+     * Picks the machine's column
+     * @param engines Search engines by board geometry (rows, cols and win length), added to as needed, like
+     *                {@link #newEngineCache()}. A table never mixes geometries, whose positions can hash alike.
+     *                Only one thread at a time may use them.
+     * @param grid A grid nobody else is changing, like {@link #snapshot()}.
+     * @param symbol The machine's symbol.
+     * @param timeLimitMillis How long the search may take.
+     */
+    public static int chooseMachineColumn(Map<String, SearchEngine> engines, Grid grid, char symbol, long timeLimitMillis) {
+        String geometry = grid.getRows() + "x" + grid.getCols() + "x" + grid.getNumToWin();
+        SearchEngine engine = engines.computeIfAbsent(geometry, key -> {
+            SearchEngine created = new SearchEngine(grid.getNumToWin());
+            created.setTranspositionTable(new TranspositionTable(ENGINE_TABLE_SIZE_MB, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+            return created;
+        });
+        engine.setTimeLimitMillis(timeLimitMillis);
+        return engine.search(grid, symbol).getColumn();
+    }
+
+    /**
+     * @return A copy of the grid for the machine to think on
+     */
+    public Grid snapshot() {
+        return grid.copy();
+    }
+
+    /**
+     * Marks the machine's move as being computed
+     * @return true if the machine has to move and nobody is computing its move yet
+     */
+    public boolean startMachineMove() {
+        if (!machineToMove || over || machineThinking) {
+            return false;
+        }
+        machineThinking = true;
+        return true;
+    }
+
+    /**
+     * @param recorder Where to archive the session's finished games from its next NEW on, or <b>null</b>
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    public char getMachineSymbol() {
+        return humanSymbol == 'X' ? 'O' : 'X';
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
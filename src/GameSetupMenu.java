@@ -60,6 +60,17 @@ public class GameSetupMenu extends JPanel {
             add(player2NameField, gbc);
         }
 
+        // Machine difficulty (only against the machine)
+        JComboBox<String> difficultyBox = new JComboBox<>(new String[]{"Smart", "Unbeatable"});
+        if (mode != 3) {
+            gbc.gridx = 0;
+            gbc.gridy = 4;
+            add(new JLabel("Difficulty:"), gbc);
+
+            gbc.gridx = 1;
+            add(difficultyBox, gbc);
+        }
+
         // Make the "Play" button span 2 columns
         JButton playButton = new JButton("Play");
         gbc.gridx = 0;
@@ -74,15 +85,16 @@ public class GameSetupMenu extends JPanel {
             int seriesLength = Integer.parseInt(seriesLengthField.getText());
             String player1Name = player1NameField.getText();
             String player2Name = (mode == 3) ? player2NameField.getText() : "Machine";
+            boolean unbeatable = (mode != 3) && difficultyBox.getSelectedIndex() == 1;
 
-            startGame(rows, columns, seriesLength, player1Name, player2Name);
+            startGame(rows, columns, seriesLength, player1Name, player2Name, unbeatable);
         });
     }
 
-    private void startGame(int rows, int columns, int seriesLength, String player1, String player2) {
+    private void startGame(int rows, int columns, int seriesLength, String player1, String player2, boolean unbeatable) {
         SwingUtilities.invokeLater(() -> {
             frame.getContentPane().removeAll();
-            frame.setContentPane(new GamePanel(new Game(mode, rows, columns, seriesLength,player1, player2)));
+            frame.setContentPane(new GamePanel(new Game(mode, rows, columns, seriesLength,player1, player2, unbeatable)));
 
             frame.pack();
             frame.setLocationRelativeTo(null);
@@ -1,17 +1,62 @@
-public class Grid {
-    private final Character[][] board;
-    private final int rows;
-    private final int cols;
+import java.util.Arrays;
 
-    private static final String ANSI_BOLD = "\u001B[1m";
-    private static final String ANSI_RESET = "\u001B[0m";
-    private static final String ANSI_RED = "\u001B[31m";
-    private static final String ANSI_BLUE = "\u001B[34m";
+public abstract class Grid {
+    protected final int rows;
+    protected final int cols;
+    private final int numToWin;
+    private final int[] heights;  //How many tokens each column holds, which is also its first empty row
+    private final int[] moves;  //Columns played so far, in order, so moves can be taken back
+    private int moveCount;  //How many tokens are on the board, and the top of the move stack
+    private final long[] zobristKeys;
+    private long hash;  //Zobrist hash of the tokens on the board
+    private Character winner;  //Whoever made a line, null while nobody has
+    private int winningMove = -1;  //Index in moves of the move that made the line
 
-    public Grid(int rows, int cols) {
+    //Row and column steps of the four line directions: horizontal, vertical, diagonal and anti-diagonal
+    static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    protected Grid(int rows, int cols, int numToWin) {
         this.rows = rows;
         this.cols = cols;
-        board = new Character[rows][cols];  //Initialize the grid with null values
+        this.numToWin = numToWin;
+        this.heights = new int[cols];
+        this.moves = new int[rows * cols];
+        this.zobristKeys = Zobrist.keysFor(rows, cols);
+    }
+
+    /**
+     * Creates a grid for the given dimensions, picking the backing that suits them:
+     * a bitboard when the board (plus a sentinel row per column) fits in a long, a plain array otherwise.
+     * @param rows The row count (height)
+     * @param cols The column count
+     * @param numToWin How many in a row win
+     * @return A new, empty grid
+     */
+    public static Grid create(int rows, int cols, int numToWin) {
+        if (BitboardGrid.fits(rows, cols)) {
+            return new BitboardGrid(rows, cols, numToWin);
+        }
+        return new ArrayGrid(rows, cols, numToWin);
+    }
+
+    /**
+     * Creates an independent copy of this grid, so it can be searched without touching the game's grid.
+     * @return A grid with the same tokens and move history
+     */
+    public Grid copy() {
+        Grid copy = create(rows, cols, numToWin);
+        for (int col = 0; col < cols; col++) {
+            for (int row = 0; row < heights[col]; row++) {
+                copy.placeToken(row, col, getCell(row, col));
+            }
+            copy.heights[col] = heights[col];
+        }
+        System.arraycopy(moves, 0, copy.moves, 0, moveCount);
+        copy.moveCount = moveCount;
+        copy.hash = hash;
+        copy.winner = winner;
+        copy.winningMove = winningMove;
+        return copy;
     }
 
     public int getRows() {
@@ -22,76 +67,83 @@ public class Grid {
         return cols;
     }
 
-    public Character[][] getBoard() {
-        return board;
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
     }
 
     /**
-     * Returns the specified column as an array, mostly for win checks
-     * @param col The column index.
-     * @return The column as a Character array.
+     * @return The symbol that made a line of numToWin, or <b>null</b> if nobody has
      */
-    public Character[] getColumn(int col) {
-        Character[] column = new Character[rows];
-        for (int row = 0; row < rows; row++) {
-            column[row] = board[row][col];
-        }
-        return column;
+    public Character getWinner() {
+        return winner;
+    }
+
+    public boolean isWon() {
+        return winner != null;
     }
 
     /**
-     * Returns the specified row as an array, mostly for win checks
-     * @param row The row index.
-     * @return The row as a Character array.
+     * @return The Zobrist hash of the tokens on the board, kept up to date on every drop and take-back
      */
-    public Character[] getRow(int row) {
-        return board[row];
+    public long getHash() {
+        return hash;
+    }
+
+    private long zobristKey(int row, int col, char symbol) {
+        return zobristKeys[(row * cols + col) * 2 + (symbol == 'X' ? 0 : 1)];
     }
 
     /**
-     * Returns the characters in the diagonal starting from the left.
-     * @param startCol The starting column index.
-     * @return The diagonal as a Character array.
+     * @return The row the last token landed in, -1 on an empty grid
      */
-    public Character[] getDiagonalFromLeft(int startCol) {
-        Character[] diagonal = new Character[Math.min(rows, cols)];
-        int row = 0;
-        //run from col at row 0 until you run out of space
-        for (int col = startCol; col < cols && row < rows; col++) {
-            diagonal[row] = board[row][col];
-            row++;
-        }
-        return diagonal;
+    public int getLastRow() {
+        return (moveCount == 0) ? -1 : heights[moves[moveCount - 1]] - 1;
     }
 
     /**
-     * Returns the characters in the diagonal starting from the right.
-     * @param startCol The starting column index.
-     * @return The diagonal as a Character array.
+     * @return The column of the last move, -1 on an empty grid
      */
-    public Character[] getDiagonalFromRight(int startCol) {
-        Character[] diagonal = new Character[Math.min(rows, cols)];
-        int row = 0;
-        //Run from startCol to the 0-th column or to the last row (not all boards have nice shapes)
-        for (int col = startCol; col >= 0 && row < rows; col--) {
-            diagonal[row] = board[row][col];
-            row++;
-        }
-        return diagonal;
+    public int getLastCol() {
+        return (moveCount == 0) ? -1 : moves[moveCount - 1];
     }
 
-     /**
+    /**
+     * Returns the content of a single cell.
+     * @param row The row index (0 is the bottom row).
+     * @param col The column index.
+     * @return 'X', 'O' or <b>null</b> for an empty cell.
+     */
+    public abstract Character getCell(int row, int col);
+
+    /**
+     * Puts symbol into the given cell, the caller makes sure it's the lowest empty one.
+     */
+    protected abstract void placeToken(int row, int col, char symbol);
+
+    /**
+     * Empties the given cell, the caller makes sure it's the topmost token of the column.
+     */
+    protected abstract void removeToken(int row, int col);
+
+    /**
      * Finds the first empty row in the specified column (for the next drop).
      * @param col The column index.
      * @return The row index of the first empty row, or -1 if the column is full.
      */
     public int findEmptyRowInColumn(int col) {
-        for (int row = 0; row < rows; row++) {
-            if (board[row][col] == null) {
-                return row;
-            }
-        }
-        return -1;  // No empty row found
+        return heights[col] < rows ? heights[col] : -1;
+    }
+
+    /**
+     * @param col The column index.
+     * @return true if no more tokens fit in the column
+     */
+    public boolean isColumnFull(int col) {
+        return heights[col] == rows;
     }
 
     /**
@@ -100,151 +152,139 @@ public class Grid {
      * @param col which column to drop the 'token' into.
      */
     public void updateGrid(Character toInsert, int col) throws FullCollumnException{
-        int emptyRow = -1;
-        for (int row = 0; row < rows; row++) {
-            if (board[row][col] == null) {
-                emptyRow = row;
-                break;
-            }
-        }
-
-        if (emptyRow == -1) {
+        if (isColumnFull(col)) {
             throw new FullCollumnException();
 
         } else {
-            board[emptyRow][col] = toInsert;
+            play(toInsert, col);
         }
     }
 
-    public boolean isGridFull() {
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                if (board[row][col] == null) {
-                    return false;
-                }
-            }
+    /**
+     * Drops symbol into col and pushes the move on the move stack. Updates heights, hash and the winner.
+     * Only touches the grid, so it's safe for trial moves.
+     * @param symbol 'X' or 'O'
+     * @param col The column index, must not be full.
+     * @return true if the move made a line of numToWin
+     */
+    public boolean play(char symbol, int col) {
+        if (isColumnFull(col)) {
+            throw new IllegalArgumentException("Column " + col + " is full");
         }
-        return true;
+        boolean wins = isWinningDrop(col, symbol, numToWin);
+        int row = heights[col];
+        placeToken(row, col, symbol);
+        heights[col]++;
+        moves[moveCount] = col;
+        if (wins && winner == null) {
+            winner = symbol;
+            winningMove = moveCount;
+        }
+        moveCount++;
+        hash ^= zobristKey(row, col, symbol);
+        return wins;
     }
+
     /**
-     * Resets all cells in the grid to null
+     * Takes back the last move, undoing everything {@link #play} did.
+     * @return The column the move was taken back from
      */
-    public void clear() {
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                board[row][col] = null;  // Clear each cell by setting it to null
-            }
+    public int undo() {
+        if (moveCount == 0) {
+            throw new IllegalStateException("No moves to undo");
+        }
+        moveCount--;
+        int col = moves[moveCount];
+        heights[col]--;
+        int row = heights[col];
+        hash ^= zobristKey(row, col, getCell(row, col));
+        removeToken(row, col);
+        if (winningMove == moveCount) {
+            winner = null;
+            winningMove = -1;
         }
+        return col;
     }
 
+    /**
+     * Counts how many tokens in a row, starting next to [row][col] and moving by (dRow, dCol),
+     * match the token at [row][col].
+     * @param row The row of the starting cell.
+     * @param col The column of the starting cell.
+     * @param dRow Row step (-1, 0 or 1).
+     * @param dCol Column step (-1, 0 or 1).
+     * @return The length of the run, not counting the starting cell.
+     */
+    public int countRun(int row, int col, int dRow, int dCol) {
+        return countRun(row, col, dRow, dCol, getCell(row, col));
+    }
 
     /**
-     * Prints a single cell from the grid, in the desired style (bold and color)
-     * @param cell The letter in the cell or <b>null</b> for empty space
-     * @param isWinningCell Is part of the winning sequence
+     * Counts how many tokens in a row, starting next to [row][col] and moving by (dRow, dCol), are symbol.
+     * [row][col] itself can be empty, which is how a drop is checked before making it.
      */
-    private void printCell(Character cell, boolean isWinningCell) {
-        if (cell == null) {
-            System.out.print("   ");  // Print empty cell
-        } else {
-            String color = (cell == 'X') ? ANSI_RED : (cell == 'O') ? ANSI_BLUE : ANSI_RESET;
-            String output = color + (isWinningCell ? ANSI_BOLD : "") + cell + ANSI_RESET;
-            System.out.print(" " + output + " ");
+    public int countRun(int row, int col, int dRow, int dCol, Character symbol) {
+        int count = 0;
+        int r = row + dRow;
+        int c = col + dCol;
+        while (symbol != null && r >= 0 && r < rows && c >= 0 && c < cols && symbol.equals(getCell(r, c))) {
+            count++;
+            r += dRow;
+            c += dCol;
         }
+        return count;
     }
 
     /**
-     * Prints the grid.
+     * Checks if dropping symbol into col would make a line of numToWin, without dropping it.
+     * @param col The column index, must not be full.
+     * @param symbol The player's symbol ('X' or 'O').
+     * @param numToWin The length of a winning line.
+     * @return true if the drop would win
      */
-    public void printGrid() {
-        for (int row = rows - 1; row >= 0; row--) {  //Start from the topmost row
-            //Print the cells with | between them
-            System.out.print("|");
-            for (int col = 0; col < cols; col++) {
-                printCell(board[row][col], false);
-                if (col < cols - 1) {
-                    System.out.print("||");  // Separator for middle columns
-                }
-            }
-            System.out.print(" |");  //End the row with a |
-            System.out.println();  //Move to the next line after the row
-
-            //Row Separator
-            for (int col = 0; col < cols; col++) {
-                System.out.print("-----");  //Print five dashes for each cell floor
+    public boolean isWinningDrop(int col, char symbol, int numToWin) {
+        int row = heights[col];
+        for (int[] direction : DIRECTIONS) {
+            int length = 1 + countRun(row, col, direction[0], direction[1], symbol) + countRun(row, col, -direction[0], -direction[1], symbol);
+            if (length >= numToWin) {
+                return true;
             }
-            System.out.println();  //Move to the next line after the row separator
         }
+        return false;
     }
 
+    public boolean isGridFull() {
+        return moveCount == rows * cols;
+    }
     /**
-     * Prints the grid and highlights the winning series
+     * Resets all cells in the grid to null
      */
-    public void printWonGrid(Coordinates coordinates) {
-        int startX = coordinates.getStartX();
-        int startY = coordinates.getStartY();
-        int endX = coordinates.getEndX();
-        int endY = coordinates.getEndY();
+    public void clear() {
+        clearCells();
+        Arrays.fill(heights, 0);
+        moveCount = 0;
+        hash = 0;
+        winner = null;
+        winningMove = -1;
+    }
 
-        //Line Separator to make it clearer
-        for (int col = 0; col < cols; col++) {
-            System.out.print("*****");
-        }
-        System.out.println();
-
-        for (int row = rows - 1; row >= 0; row--) {
-            System.out.print("| ");
-            for (int col = 0; col < cols; col++) {
-                //Check if the current cell is part of the winning sequence
-                boolean isWinningCell = isPartOfWinningSequence(row, col, startX, startY, endX, endY);
-                printCell(board[row][col], isWinningCell);
-                System.out.print(" |");
-            }
-            System.out.println();
+    /**
+     * Empties every cell of the backing storage.
+     */
+    protected abstract void clearCells();
 
-            //Print row separator
-            for (int col = 0; col < cols; col++) {
-                System.out.print("-----");
-            }
-            System.out.println();
-        }
+
+    /**
+     * Prints the grid.
+     */
+    public void printGrid() {
+        ConsoleRenderer.console().render(this);
     }
 
     /**
-     * Checks if the char at the given position is part of the winning sequence
-     * @param row The row of the won num on the grid
-     * @param col The column of the won num on the grid
-     * @param startX X Start of winning sequence
-     * @param startY Y Start of winning sequence
-     * @param endX X End of winning sequence
-     * @param endY Y End of winning sequence
-     * @return true if the char at grid[row][col] is part of the winning sequence
-     */
-    private boolean isPartOfWinningSequence(int row, int col, int startX, int startY, int endX, int endY) {
-        //Check if the current cell is within the range of the winning sequence
-        if (startX == endX) {
-            //Horizontal winning sequence
-            //Same Y
-            return row == startX && col >= startY && col <= endY;
-        } else if (startY == endY) {
-            //Vertical winning sequence
-            //Same X
-            return col == startY && row >= startX && row <= endX;
-        } else if (Math.abs(startX - endX) == Math.abs(startY - endY)) {
-            //Diagonal winning sequence
-            //The moving direction is the same
-            int dx = (endX > startX) ? 1 : -1;  // Direction for row
-            int dy = (endY > startY) ? 1 : -1;  // Direction for col
-
-            for (int i = 0; i <= Math.abs(endX - startX); i++) {
-                int currentRow = startX + i * dx;
-                int currentCol = startY + i * dy;
-                if (row == currentRow && col == currentCol) {
-                    return true;
-                }
-            }
-        }
-        return false;
+     * Prints the grid and highlights the winning series
+     */
+    public void printWonGrid(Coordinates coordinates) {
+        ConsoleRenderer.console().renderWon(this, coordinates);
     }
 }
-
@@ -0,0 +1,166 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts a {@link VirtualThreadGameServer} on a loopback port and connects many clients to it, each starting
+ * a game and then going quiet, so every server session sits on its virtual thread waiting for a human move.
+ * Reports what the idle sessions cost, then has every client move, waits for the machine's replies, and quits.
+ * Both ends of every connection live in this process, so it needs two file descriptors per session
+ * (raise "ulimit -n" above twice the session count), and the heap figure covers clients as well as sessions.
+ * Usage: java IdleSessionLoadTest [sessions] [rows] [cols] [numToWin] [machineMillis]
+ */
+public class IdleSessionLoadTest {
+    private static final int MAX_CONNECTING = 256;  //Clients connecting at once, so the accept queue keeps up
+    private static final long TIMEOUT_SECONDS = 300;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        int rows = (args.length > 1) ? Integer.parseInt(args[1]) : 6;
+        int cols = (args.length > 2) ? Integer.parseInt(args[2]) : 7;
+        int numToWin = (args.length > 3) ? Integer.parseInt(args[3]) : 4;
+        long machineMillis = (args.length > 4) ? Long.parseLong(args[4]) : 1;
+
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        VirtualThreadGameServer server = new VirtualThreadGameServer(port, VirtualThreadGameServer.defaultComputeThreads(), machineMillis);
+        Thread acceptor = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                System.err.println("The server failed: " + e.getMessage());
+            }
+        }, "acceptor");
+        acceptor.start();
+        waitForServer(port);
+
+        CountDownLatch idle = new CountDownLatch(sessions);  //Counts clients whose session waits for their move
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch answered = new CountDownLatch(sessions);  //Counts clients the machine has replied to
+        Semaphore connecting = new Semaphore(MAX_CONNECTING);
+        AtomicLong failures = new AtomicLong();
+        String newGame = "NEW " + rows + " " + cols + " " + numToWin;
+        long heapBefore = usedHeap();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions; i++) {
+                clients.submit(() -> runClient(port, newGame, cols / 2 + 1, connecting, idle, go, answered, failures));
+            }
+            if (!idle.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Timed out with " + idle.getCount() + " sessions not started");
+            }
+            long startedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf("%,d sessions idle after %,d ms (%,d failed)%n", sessions, startedMillis, failures.get());
+            System.out.printf("Heap: %,d KB, about %,d bytes per session with its client%n",
+                    (usedHeap() - heapBefore) / 1024, (usedHeap() - heapBefore) / sessions);
+            System.out.printf("Platform threads: %d%n", ManagementFactory.getThreadMXBean().getThreadCount());
+
+            long wakeStart = System.nanoTime();
+            go.countDown();
+            if (!answered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Timed out with " + answered.getCount() + " sessions not answered");
+            }
+            System.out.printf("Woke every session and got the machine's reply in %,d ms%n",
+                    (System.nanoTime() - wakeStart) / 1_000_000);
+        } finally {
+            server.stop();
+            acceptor.join();
+        }
+        System.out.printf("All sessions done, %,d failed%n", failures.get());
+    }
+
+    /**
+     * One client: starts a game, waits for the signal, plays one move, reads the machine's reply and quits.
+     * Counts itself down on both latches whatever happens, so the test never waits on a client that died.
+     */
+    private static void runClient(int port, String newGame, int col, Semaphore connecting, CountDownLatch idle,
+                                  CountDownLatch go, CountDownLatch answered, AtomicLong failures) {
+        boolean wasIdle = false;
+        boolean wasAnswered = false;
+        try {
+            connecting.acquire();
+            Socket socket;
+            try {
+                socket = new Socket("localhost", port);
+            } finally {
+                connecting.release();
+            }
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 256);
+                 Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+                socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+                send(out, newGame);
+                expect(in, "OK");
+                idle.countDown();
+                wasIdle = true;
+
+                go.await();
+                send(out, "MOVE " + col);
+                expect(in, "OK");
+                expect(in, "MOVE");
+                answered.countDown();
+                wasAnswered = true;
+
+                send(out, "QUIT");
+                expect(in, "BYE");
+            }
+        } catch (IOException | InterruptedException e) {
+            failures.incrementAndGet();
+        } finally {
+            if (!wasIdle) {
+                idle.countDown();
+            }
+            if (!wasAnswered) {
+                answered.countDown();
+            }
+        }
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line + "\n");
+        out.flush();
+    }
+
+    private static void expect(BufferedReader in, String reply) throws IOException {
+        String line = in.readLine();
+        if (line == null || !line.startsWith(reply)) {
+            throw new IOException("Expected " + reply + ", got " + line);
+        }
+    }
+
+    /**
+     * Returns once the server accepts connections
+     */
+    private static void waitForServer(int port) throws InterruptedException {
+        while (true) {
+            try {
+                new Socket("localhost", port).close();
+                return;
+            } catch (IOException e) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Walks every line of a grid (rows, columns, diagonals and anti-diagonals) without copying cells.
+ * One cursor can be reused for any number of passes, so checks that run after every move don't allocate.
+ * <pre>
+ * cursor.start(grid, numToWin);
+ * while (cursor.next()) {
+ *     for (int i = 0; i < cursor.length(); i++) { cursor.cellAt(i) ... }
+ * }
+ * </pre>
+ */
+public class LineCursor {
+    private static final int ROWS = 0, COLUMNS = 1, DIAGONALS = 2, ANTI_DIAGONALS = 3, DONE = 4;
+
+    private Grid grid;
+    private int minLength;
+
+    private int family;  //Which kind of line is being walked
+    private int index;  //Which line of that family
+
+    //Current line
+    private int startRow;
+    private int startCol;
+    private int dRow;
+    private int dCol;
+    private int length;
+
+    /**
+     * Starts a new pass over grid.
+     * @param grid The grid to walk.
+     * @param minLength Lines shorter than this are skipped (no one can win on them).
+     */
+    public void start(Grid grid, int minLength) {
+        this.grid = grid;
+        this.minLength = minLength;
+        family = ROWS;
+        index = -1;
+        length = 0;
+    }
+
+    /**
+     * Moves to the next line that is at least minLength long.
+     * @return false when there are no lines left
+     */
+    public boolean next() {
+        while (family != DONE) {
+            index++;
+            if (index >= linesInFamily()) {
+                family++;
+                index = -1;
+                continue;
+            }
+            setLine();
+            if (length >= minLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int linesInFamily() {
+        int rows = grid.getRows(), cols = grid.getCols();
+        return switch (family) {
+            case ROWS -> rows;
+            case COLUMNS -> cols;
+            //One diagonal from every cell of the bottom row, plus one from every other cell of the side column
+            case DIAGONALS, ANTI_DIAGONALS -> cols + rows - 1;
+            default -> 0;
+        };
+    }
+
+    private void setLine() {
+        int rows = grid.getRows(), cols = grid.getCols();
+        switch (family) {
+            case ROWS -> {
+                startRow = index;
+                startCol = 0;
+                dRow = 0;
+                dCol = 1;
+                length = cols;
+            }
+            case COLUMNS -> {
+                startRow = 0;
+                startCol = index;
+                dRow = 1;
+                dCol = 0;
+                length = rows;
+            }
+            case DIAGONALS -> {
+                //Up and to the right, starting on the bottom row or on the left column
+                startRow = (index < cols) ? 0 : index - cols + 1;
+                startCol = (index < cols) ? index : 0;
+                dRow = 1;
+                dCol = 1;
+                length = Math.min(rows - startRow, cols - startCol);
+            }
+            default -> {
+                //Up and to the left, starting on the bottom row or on the right column
+                startRow = (index < cols) ? 0 : index - cols + 1;
+                startCol = (index < cols) ? index : cols - 1;
+                dRow = 1;
+                dCol = -1;
+                length = Math.min(rows - startRow, startCol + 1);
+            }
+        }
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @param i Position along the current line, 0 is its start.
+     * @return The content of that cell: 'X', 'O' or <b>null</b>
+     */
+    public Character cellAt(int i) {
+        return grid.getCell(rowAt(i), colAt(i));
+    }
+
+    public int rowAt(int i) {
+        return startRow + i * dRow;
+    }
+
+    public int colAt(int i) {
+        return startCol + i * dCol;
+    }
+}
@@ -1,6 +1,8 @@
 import java.util.Random;
 
-public class MachinePlayer extends Player{
+public class MachinePlayer extends Player implements MoveProvider{
+
+    private final Random random = new Random();  //One per player, not one per move
 
     public MachinePlayer(Character symbol, Game game) {
         super(symbol, game, "Machine");
@@ -33,31 +35,43 @@ public class MachinePlayer extends Player{
      * @return true if no move happened, false if everything ok (and the machine won)
      */
     protected boolean makeWinningMove() {
-        for (int col = 0; col < game.getGrid().getCols(); col++) {
-            try {
-                int emptyRow = game.getGrid().findEmptyRowInColumn(col);
-                if (emptyRow != -1) {
+        //Center columns first, they're part of more lines
+        Grid grid = game.getGrid();
+        for (int col : MoveOrdering.centerOut(grid.getCols())) {
+            if (grid.isColumnFull(col)) {
+                continue;  //No biggie try the next column
+            }
 
-                    game.getGrid().updateGrid(symbol, col);
+            //Check if this move results in a win
+            if (grid.play(symbol, col)) {
+                System.out.println("MachinePlayer made a winning move in column " + (col + 1));
+                return false;  //Exit after making the winning move
+            }
 
-                    //Check if this move results in a win
-                    if (game.gameRules.checkGameOver(this)) {
-                        System.out.println("MachinePlayer made a winning move in column " + (col + 1));
-                        return false;  //Exit after making the winning move
-                    }
+            //Undo the move if it doesn't lead to a win
+            grid.undo();
+        }
+        return true;
+    }
 
-                    //Undo the move if it doesn't lead to a win
-                    game.getGrid().getBoard()[emptyRow][col] = null;
-                }
-            } catch (FullCollumnException e) {
-                //No biggie try the next column
+    /**
+     * Picks the winning column if there is one, otherwise a random open column
+     */
+    @Override
+    public int chooseColumn(Grid grid, char symbol) {
+        for (int col : MoveOrdering.centerOut(grid.getCols())) {
+            if (!grid.isColumnFull(col) && grid.isWinningDrop(col, symbol, grid.getNumToWin())) {
+                return col;
             }
         }
-        return true;
+        int col;
+        do {
+            col = random.nextInt(grid.getCols());
+        } while (grid.isColumnFull(col));
+        return col;
     }
 
     protected void makeRandomMove() {
-        Random random = new Random();
         int col;
         while (true) {
             col = random.nextInt(game.getGrid().getCols());
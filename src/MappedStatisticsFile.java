@@ -0,0 +1,329 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Players' totals in a memory-mapped binary file: fixed-width records plus an open-addressing hash index
+ * from name to record, so one player is found, read and updated in place without loading the rest.
+ * Layout: a 64-byte header (magic, version, index slots, record capacity, record count, last sequence number),
+ * the index (one int per slot: record number + 1, 0 when empty, linear probing), then the records from the
+ * next 4 KiB boundary.
+ * A record is 64 bytes: a length-prefixed UTF-8 name of up to 39 bytes, four int counters and the sequence number
+ * of the last change applied to it, which lets a change log be replayed more than once safely.
+ * A record never straddles a page, so its counters and its sequence number always reach the disk together.
+ * A version 1 file (72-byte records) is upgraded when opened.
+ * The header's last sequence number is a reservation: it is raised a block at a time and forced to the disk
+ * before any record uses a number from the block, so after a crash it is still at least every record's.
+ * When the records or the index fill up, the file is rebuilt twice as large into a temporary file and swapped in.
+ * One buffer maps the whole file, which caps it at 2GB (about 30 million players).
+ */
+public class MappedStatisticsFile {
+    static final int MAGIC = 0x34535441;  //"4STA"
+    static final int VERSION = 2;
+    static final int MAX_NAME_BYTES = 39;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 64;  //Divides the page, records start on one
+    private static final int PAGE_SIZE = 4096;
+    private static final int INITIAL_SLOTS = 1024;  //A power of two, so a hash is masked into a slot
+    private static final int INITIAL_RECORDS = 256;
+    private static final long SEQ_BLOCK = 1 << 16;  //Sequence numbers reserved per header force
+
+    //Header fields
+    private static final int SLOTS_AT = 8, CAPACITY_AT = 12, COUNT_AT = 16, LAST_SEQ_AT = 24;
+
+    //Record fields
+    private static final int GAMES_AT = 40, WINS_AT = 44, LOSSES_AT = 48, DRAWS_AT = 52, SEQ_AT = 56;
+
+    //Version 1 records, only read to upgrade
+    private static final int V1_RECORD_SIZE = 72, V1_GAMES_AT = 48, V1_SEQ_AT = 64;
+
+    private final File file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int slots;
+    private int capacity;
+    private int count;
+    private int records;  //Where the records start
+
+    private MappedStatisticsFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Maps the file, creating an empty one if it doesn't exist
+     */
+    public static MappedStatisticsFile open(File file) throws IOException {
+        MappedStatisticsFile stats = new MappedStatisticsFile(file);
+        if (!file.exists() || file.length() == 0) {
+            create(file, INITIAL_SLOTS, INITIAL_RECORDS).close();
+        } else {
+            upgradeIfOld(file);
+        }
+        stats.map();
+        return stats;
+    }
+
+    /**
+     * Rewrites a version 1 file in the current layout under a temporary name, then renames it over the old one.
+     * Every record keeps its totals and sequence number; a name too long for the new records is dropped.
+     */
+    private static void upgradeIfOld(File file) throws IOException {
+        File temp = new File(file.getPath() + ".upgrade");
+        try (FileChannel old = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer v1 = old.map(FileChannel.MapMode.READ_ONLY, 0, old.size());
+            if (v1.getInt(0) != MAGIC || v1.getInt(4) != 1) {
+                return;  //Current, or not a stats file at all, which map() reports
+            }
+            int oldSlots = v1.getInt(SLOTS_AT);
+            int oldCount = v1.getInt(COUNT_AT);
+            create(temp, oldSlots, v1.getInt(CAPACITY_AT)).close();
+
+            MappedStatisticsFile upgraded = new MappedStatisticsFile(temp);
+            upgraded.map();
+            upgraded.buffer.putLong(LAST_SEQ_AT, v1.getLong(LAST_SEQ_AT));  //So no update below reserves more
+            for (int record = 0; record < oldCount; record++) {
+                int at = HEADER_SIZE + oldSlots * Integer.BYTES + record * V1_RECORD_SIZE;
+                byte[] bytes = new byte[v1.get(at)];
+                v1.get(at + 1, bytes);
+                String name = new String(bytes, StandardCharsets.UTF_8);
+                if (bytes.length > MAX_NAME_BYTES) {
+                    System.err.println("Dropped " + name + " from " + file.getName() + ", names are at most "
+                            + MAX_NAME_BYTES + " bytes now");
+                    continue;
+                }
+                upgraded.update(upgraded.add(name), v1.getInt(at + V1_GAMES_AT), v1.getInt(at + V1_GAMES_AT + 4),
+                        v1.getInt(at + V1_GAMES_AT + 8), v1.getInt(at + V1_GAMES_AT + 12), v1.getLong(at + V1_SEQ_AT));
+            }
+            upgraded.close();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Upgraded " + file.getName() + " to version " + VERSION);
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(file.getName() + " is not a version " + VERSION + " stats file");
+        }
+        slots = buffer.getInt(SLOTS_AT);
+        capacity = buffer.getInt(CAPACITY_AT);
+        count = buffer.getInt(COUNT_AT);
+        records = recordsStart(slots);
+    }
+
+    /**
+     * @return Where the records start after an index of the given size: the next page boundary
+     */
+    private static int recordsStart(int slots) {
+        int indexEnd = HEADER_SIZE + slots * Integer.BYTES;
+        return (indexEnd + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    }
+
+    /**
+     * Writes an empty file with the given sizes and leaves it open
+     */
+    private static FileChannel create(File file, int slots, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = recordsStart(slots) + (long) capacity * RECORD_SIZE;
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(SLOTS_AT, slots);
+        header.putInt(CAPACITY_AT, capacity);
+        header.putInt(COUNT_AT, 0);
+        header.putLong(LAST_SEQ_AT, 0);
+        return channel;
+    }
+
+    /**
+     * @return The player's record number, or -1 if there is none
+     */
+    public int find(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int slot = firstSlot(bytes);
+        int entry;
+        while ((entry = buffer.getInt(slotAt(slot))) != 0) {
+            if (nameEquals(entry - 1, bytes)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & (slots - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a player with empty totals, the caller makes sure there's none by that name yet
+     * @return The new record number
+     */
+    public int add(String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Player name is longer than " + MAX_NAME_BYTES + " bytes: " + name);
+        }
+        if (count == capacity || (count + 1) * 2 > slots) {
+            grow();
+        }
+
+        int record = count;
+        int at = recordAt(record);
+        buffer.put(at, (byte) bytes.length);
+        buffer.put(at + 1, bytes);
+        count++;
+        buffer.putInt(COUNT_AT, count);
+        index(record, bytes);
+        return record;
+    }
+
+    /**
+     * Adds a change to a record in place
+     * @param seq The change's sequence number, kept with the record. The header's reservation is raised first if needed.
+     */
+    public void update(int record, int games, int wins, int losses, int draws, long seq) {
+        reserveSeq(seq);
+        int at = recordAt(record);
+        buffer.putInt(at + GAMES_AT, buffer.getInt(at + GAMES_AT) + games);
+        buffer.putInt(at + WINS_AT, buffer.getInt(at + WINS_AT) + wins);
+        buffer.putInt(at + LOSSES_AT, buffer.getInt(at + LOSSES_AT) + losses);
+        buffer.putInt(at + DRAWS_AT, buffer.getInt(at + DRAWS_AT) + draws);
+        buffer.putLong(at + SEQ_AT, seq);
+    }
+
+    /**
+     * Makes sure the header covers seq before a record gets it, reserving a new block if needed
+     */
+    private void reserveSeq(long seq) {
+        if (seq > getLastSeq()) {
+            buffer.putLong(LAST_SEQ_AT, seq + SEQ_BLOCK - 1);
+            buffer.force(0, HEADER_SIZE);
+        }
+    }
+
+    public String nameAt(int record) {
+        int at = recordAt(record);
+        byte[] bytes = new byte[buffer.get(at)];
+        buffer.get(at + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int getGames(int record) {
+        return buffer.getInt(recordAt(record) + GAMES_AT);
+    }
+
+    public int getWins(int record) {
+        return buffer.getInt(recordAt(record) + WINS_AT);
+    }
+
+    public int getLosses(int record) {
+        return buffer.getInt(recordAt(record) + LOSSES_AT);
+    }
+
+    public int getDraws(int record) {
+        return buffer.getInt(recordAt(record) + DRAWS_AT);
+    }
+
+    /**
+     * @return The sequence number of the last change applied to the record
+     */
+    public long getSeq(int record) {
+        return buffer.getLong(recordAt(record) + SEQ_AT);
+    }
+
+    /**
+     * @return At least the highest sequence number applied to any record, even after a crash
+     */
+    public long getLastSeq() {
+        return buffer.getLong(LAST_SEQ_AT);
+    }
+
+    /**
+     * @return How many players there are, record numbers run from 0 to size - 1
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes the changed pages to the disk
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Rebuilds the file twice as large in a temporary file, then swaps it in and maps it
+     */
+    private void grow() throws IOException {
+        int newSlots = slots * 2;
+        int newCapacity = capacity * 2;
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel target = create(temp, newSlots, newCapacity)) {
+            MappedByteBuffer grown = target.map(FileChannel.MapMode.READ_WRITE, 0, target.size());
+            grown.putInt(COUNT_AT, count);
+            grown.putLong(LAST_SEQ_AT, getLastSeq());
+            grown.put(recordsStart(newSlots), buffer, recordAt(0), count * RECORD_SIZE);
+            grown.force();
+        }
+        channel.close();
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+
+        for (int record = 0; record < count; record++) {
+            int at = recordAt(record);
+            byte[] bytes = new byte[buffer.get(at)];
+            buffer.get(at + 1, bytes);
+            index(record, bytes);
+        }
+    }
+
+    private void index(int record, byte[] name) {
+        int slot = firstSlot(name);
+        while (buffer.getInt(slotAt(slot)) != 0) {
+            slot = (slot + 1) & (slots - 1);
+        }
+        buffer.putInt(slotAt(slot), record + 1);
+    }
+
+    private boolean nameEquals(int record, byte[] name) {
+        int at = recordAt(record);
+        if (buffer.get(at) != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (buffer.get(at + 1 + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int firstSlot(byte[] name) {
+        int hash = 1;
+        for (byte b : name) {
+            hash = 31 * hash + b;
+        }
+        hash *= 0x9E3779B9;  //Spread the low bits, the mask only keeps those
+        return (hash ^ (hash >>> 16)) & (slots - 1);
+    }
+
+    private int slotAt(int slot) {
+        return HEADER_SIZE + slot * Integer.BYTES;
+    }
+
+    private int recordAt(int record) {
+        return records + record * RECORD_SIZE;
+    }
+}
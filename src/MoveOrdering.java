@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+/**
+ * Decides in which order the search tries columns: immediate wins, then forced blocks,
+ * then the transposition table's move and the killer move of the ply, then the rest by
+ * history score, with ties going to the columns closest to the center.
+ * Good ordering makes alpha-beta cut off early, which is most of its speed.
+ */
+public class MoveOrdering {
+    private final int cols;
+    private final int[] centerOut;
+    private final int[] killers;  //Last move that caused a cutoff at each ply, -1 for none
+    private final int[][] history;  //[0 for X, 1 for O][col], grows with every cutoff the move causes
+
+    private final int[] addedStamp;  //addedStamp[col] == stamp when col is already in the current list
+    private int stamp;
+
+    public MoveOrdering(int rows, int cols) {
+        this.cols = cols;
+        centerOut = centerOut(cols);
+        killers = new int[rows * cols + 1];
+        history = new int[2][cols];
+        addedStamp = new int[cols];
+        clear();
+    }
+
+    /**
+     * @return The columns ordered from the center outwards, e.g. 3, 2, 4, 1, 5, 0, 6 for 7 columns
+     */
+    public static int[] centerOut(int cols) {
+        int[] order = new int[cols];
+        int i = 0;
+        //distance is |2 * col - (cols - 1)|, twice the distance from the middle, so it's whole for even counts too
+        for (int distance = (cols - 1) % 2; i < cols; distance += 2) {
+            int left = (cols - 1 - distance) / 2;
+            int right = (cols - 1 + distance) / 2;
+            order[i++] = left;
+            if (right != left) {
+                order[i++] = right;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Forgets killers and history, call it before searching a new move
+     */
+    public final void clear() {
+        Arrays.fill(killers, -1);
+        for (int[] side : history) {
+            Arrays.fill(side, 0);
+        }
+    }
+
+    /**
+     * Fills moves with the open columns in the order they should be tried.
+     * @param grid The position.
+     * @param symbol The player to move.
+     * @param numToWin The length of a winning line.
+     * @param tableMove The transposition table's best move for the position, or -1.
+     * @param ply Distance from the root, for the killer move.
+     * @param moves Receives the columns, must have room for every column.
+     * @return How many columns were written
+     */
+    public int order(Grid grid, char symbol, int numToWin, int tableMove, int ply, int[] moves) {
+        stamp++;
+        int count = 0;
+        char opponent = SearchEngine.opponentOf(symbol);
+
+        //Winning right away beats everything, blocking the opponent's win comes next
+        for (int col : centerOut) {
+            if (!grid.isColumnFull(col) && grid.isWinningDrop(col, symbol, numToWin)) {
+                count = add(moves, count, col);
+            }
+        }
+        for (int col : centerOut) {
+            if (addedStamp[col] != stamp && !grid.isColumnFull(col) && grid.isWinningDrop(col, opponent, numToWin)) {
+                count = add(moves, count, col);
+            }
+        }
+
+        if (tableMove >= 0 && tableMove < grid.getCols() && addedStamp[tableMove] != stamp && !grid.isColumnFull(tableMove)) {
+            count = add(moves, count, tableMove);
+        }
+        int killer = killers[ply];
+        if (killer >= 0 && addedStamp[killer] != stamp && !grid.isColumnFull(killer)) {
+            count = add(moves, count, killer);
+        }
+
+        //The rest, by history score (insertion sort keeps the center-out order between equals)
+        int[] scores = history[sideIndex(symbol)];
+        int sortedFrom = count;
+        for (int col : centerOut) {
+            if (addedStamp[col] == stamp || grid.isColumnFull(col)) {
+                continue;
+            }
+            int i = count;
+            while (i > sortedFrom && scores[moves[i - 1]] < scores[col]) {
+                moves[i] = moves[i - 1];
+                i--;
+            }
+            moves[i] = col;
+            addedStamp[col] = stamp;
+            count++;
+        }
+        return count;
+    }
+
+    private int add(int[] moves, int count, int col) {
+        moves[count] = col;
+        addedStamp[col] = stamp;
+        return count + 1;
+    }
+
+    /**
+     * Remembers a move that made the opponent's previous move a mistake.
+     * @param symbol The player who made the move.
+     * @param col The move.
+     * @param depth Remaining depth at the cutoff, deeper cutoffs count more.
+     * @param ply Distance from the root.
+     */
+    public void recordCutoff(char symbol, int col, int depth, int ply) {
+        killers[ply] = col;
+        int[] scores = history[sideIndex(symbol)];
+        scores[col] += depth * depth;
+        if (scores[col] > Integer.MAX_VALUE / 2) {
+            //Keep the relative order and stay far from overflow
+            for (int i = 0; i < cols; i++) {
+                scores[i] /= 2;
+            }
+        }
+    }
+
+    private static int sideIndex(char symbol) {
+        return (symbol == 'X') ? 0 : 1;
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Something that picks a column to play, given the position and who is to move.
+ * Implementations must not change the grid they are given (playing and undoing is fine).
+ */
+public interface MoveProvider {
+
+    /**
+     * @param grid The current position, with room left to play and no winner yet
+     * @param symbol The symbol of the player to move
+     * @return The column to play, 0-based
+     */
+    int chooseColumn(Grid grid, char symbol);
+}
@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed best moves for the first plies of a geometry, read straight from a memory-mapped file.
+ * The file is a header followed by fixed-width entries sorted by position key, so a lookup is a binary
+ * search over the mapping: nothing is loaded onto the heap and opening a book costs next to nothing.
+ * Books are written by {@link OpeningBookBuilder}.
+ */
+public class OpeningBook {
+    static final int MAGIC = 0x34424F4B;  //"4BOK"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 6 * Integer.BYTES;  //magic, version, rows, cols, numToWin, entry count
+    static final int ENTRY_BYTES = Long.BYTES + 2 * Integer.BYTES;  //key, move, score
+
+    public static final String DIRECTORY_PROPERTY = "fourinarow.books";
+    private static final String DEFAULT_DIRECTORY = "books";
+
+    private static final Map<String, Optional<OpeningBook>> OPENED = new ConcurrentHashMap<>();
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    private OpeningBook(MappedByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Maps a book file.
+     * @param file The book.
+     * @param rows The geometry the caller plays, the book must match it.
+     * @param cols The geometry the caller plays, the book must match it.
+     * @param numToWin The geometry the caller plays, the book must match it.
+     * @throws IOException If the file can't be read or is for another geometry
+     */
+    public static OpeningBook open(Path file, int rows, int cols, int numToWin) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " is not an opening book");
+            }
+            if (buffer.getInt(8) != rows || buffer.getInt(12) != cols || buffer.getInt(16) != numToWin) {
+                throw new IOException(file + " is for another geometry");
+            }
+            int count = buffer.getInt(20);
+            if (buffer.limit() < HEADER_BYTES + (long) count * ENTRY_BYTES) {
+                throw new IOException(file + " is truncated");
+            }
+            return new OpeningBook(buffer, count);
+        }
+    }
+
+    /**
+     * Finds the book for a geometry in the books directory (the fourinarow.books system property, "books" by default).
+     * Each geometry is mapped once and shared.
+     * @return The book, or <b>null</b> if there is none for this geometry
+     */
+    public static OpeningBook forGeometry(int rows, int cols, int numToWin) {
+        Path file = Path.of(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), fileName(rows, cols, numToWin));
+        return OPENED.computeIfAbsent(file.toAbsolutePath().toString(), name -> {
+            if (!Files.isRegularFile(file)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(open(file, rows, cols, numToWin));
+            } catch (IOException e) {
+                System.err.println("Ignoring opening book: " + e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * @return The file name of the book of a geometry, e.g. 6x7x4.book
+     */
+    public static String fileName(int rows, int cols, int numToWin) {
+        return rows + "x" + cols + "x" + numToWin + ".book";
+    }
+
+    /**
+     * Looks a position up.
+     * @param key The position's hash with the player to move, see {@link Zobrist#withMover}.
+     * @return The entry's index, or -1 if the position isn't in the book
+     */
+    public int find(long key) {
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = keyAt(mid);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private long keyAt(int index) {
+        return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    /**
+     * @return The best column of the entry, 0-based
+     */
+    public int moveAt(int index) {
+        return buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + Long.BYTES);
+    }
+
+    /**
+     * @return The entry's score, from the point of view of the player to move
+     */
+    public int scoreAt(int index) {
+        return buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + Long.BYTES + Integer.BYTES);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes a book: the header, then the entries sorted by key.
+     * @param keys Position keys, sorted ascending.
+     */
+    static void write(Path file, int rows, int cols, int numToWin, long[] keys, int[] moves, int[] scores) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + keys.length * ENTRY_BYTES);
+        out.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(numToWin).putInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            out.putLong(keys[i]).putInt(moves[i]).putInt(scores[i]);
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+}
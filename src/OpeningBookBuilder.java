@@ -0,0 +1,88 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds opening books offline: searches every position reachable in the first few plies
+ * (with either player starting) and writes the best move of each to a book file.
+ * Usage: java OpeningBookBuilder [outputDir plies millisPerPosition]
+ * Builds 6x7 (4 to win), 7x8 (4 to win) and 9x9 (5 to win).
+ */
+public class OpeningBookBuilder {
+    private static final int[][] GEOMETRIES = {{6, 7, 4}, {7, 8, 4}, {9, 9, 5}};
+    private static final int TABLE_SIZE_MB = 256;
+
+    private final Grid grid;
+    private final SearchEngine engine;
+    private final int plies;
+    private final Map<Long, int[]> entries = new HashMap<>();  //key -> {move, score}
+
+    private OpeningBookBuilder(int rows, int cols, int numToWin, int plies, long millis) {
+        grid = Grid.create(rows, cols, numToWin);
+        engine = new SearchEngine(numToWin);
+        engine.setTimeLimitMillis(millis);
+        engine.setTranspositionTable(new TranspositionTable(TABLE_SIZE_MB, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+        engine.setThreads(Runtime.getRuntime().availableProcessors());
+        this.plies = plies;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of((args.length > 0) ? args[0] : "books");
+        int plies = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        long millis = (args.length > 2) ? Long.parseLong(args[2]) : 200;
+        Files.createDirectories(directory);
+
+        for (int[] geometry : GEOMETRIES) {
+            int rows = geometry[0], cols = geometry[1], numToWin = geometry[2];
+            OpeningBookBuilder builder = new OpeningBookBuilder(rows, cols, numToWin, plies, millis);
+            builder.expand('X', 0);
+            builder.expand('O', 0);
+
+            Path file = directory.resolve(OpeningBook.fileName(rows, cols, numToWin));
+            builder.write(file);
+            System.out.println("Wrote " + builder.entries.size() + " positions to " + file);
+        }
+    }
+
+    /**
+     * Searches the current position and every position below it, up to the ply limit.
+     */
+    private void expand(char symbol, int ply) {
+        if (ply > plies || grid.isWon() || grid.isGridFull()) {
+            return;
+        }
+        long key = Zobrist.withMover(grid.getHash(), symbol);
+        if (!entries.containsKey(key)) {
+            SearchResult result = engine.search(grid.copy(), symbol);
+            entries.put(key, new int[]{result.getColumn(), result.getScore()});
+        }
+        for (int col = 0; col < grid.getCols(); col++) {
+            if (!grid.isColumnFull(col)) {
+                grid.play(symbol, col);
+                expand(SearchEngine.opponentOf(symbol), ply + 1);
+                grid.undo();
+            }
+        }
+    }
+
+    private void write(Path file) throws IOException {
+        long[] keys = new long[entries.size()];
+        int i = 0;
+        for (long key : entries.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+
+        int[] moves = new int[keys.length];
+        int[] scores = new int[keys.length];
+        for (i = 0; i < keys.length; i++) {
+            int[] entry = entries.get(keys[i]);
+            moves[i] = entry[0];
+            scores[i] = entry[1];
+        }
+        OpeningBook.write(file, grid.getRows(), grid.getCols(), grid.getNumToWin(), keys, moves, scores);
+    }
+}
@@ -1,4 +1,4 @@
-abstract public class Player extends Thread{
+abstract public class Player {
 
     protected char symbol;//X or O
     protected final Game game;
@@ -6,10 +6,7 @@ abstract public class Player extends Thread{
     protected int totalGames;
     protected int wins;
     protected int losses;
-
-    protected boolean waiting;
-
-
+    protected int draws;
 
     public Player(char symbol, Game game, String name) {
         this.symbol = symbol;
@@ -20,23 +17,6 @@ abstract public class Player extends Thread{
         totalGames = StatisticsHandler.getTotalGames(name);
     }
 
-    @Override
-    public void run() {
-        while (!game.isGameOver()) {
-            game.waitForTurn(this);
-
-            if (game.isGameOver()) break; // Handle game end during wait
-
-            makeMove();
-
-            if (endMove()) break;
-
-            game.switchTurn();
-        }
-        game.switchTurn();
-        System.out.println(name + " has finished their game.");
-    }
-
     /**
      * Increment wins for self, increment losses for other
      */
@@ -58,12 +38,15 @@ abstract public class Player extends Thread{
     public boolean endMove() {
         boolean result = game.gameRules.checkGameOver(this);
         if (result) {
-            if (game.gameRules.checkWin(symbol)){
+            if (game.gameRules.checkWinAt(game.getGrid().getLastRow(), game.getGrid().getLastCol())){
                 win();
             }
             else {
                 game.getGrid().printGrid();
                 System.out.println("Tie!");
+                for (Player p : game.getPlayers()) {
+                    p.draws++;
+                }
             }
             return true;
         }
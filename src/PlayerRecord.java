@@ -0,0 +1,48 @@
+/**
+ * One player's totals, kept as plain ints instead of a "games,wins,losses" string.
+ */
+public class PlayerRecord {
+    private final String name;
+    private int games;
+    private int wins;
+    private int losses;
+    private int draws;
+
+    public PlayerRecord(String name, int games, int wins, int losses, int draws) {
+        this.name = name;
+        this.games = games;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+    }
+
+    /**
+     * Adds a change to the totals
+     */
+    public void add(int games, int wins, int losses, int draws) {
+        this.games += games;
+        this.wins += wins;
+        this.losses += losses;
+        this.draws += draws;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+}
@@ -0,0 +1,338 @@
+/**
+ * Picks a column with negamax and alpha-beta pruning, deepening one ply at a time until the
+ * time or node budget runs out. Works on any grid size and win length.
+ * The engine searches on its own copy of the grid, never on the game's.
+ * With more than one thread it runs Lazy SMP: helper threads search the same position
+ * through the shared transposition table, and the main thread's result is used.
+ */
+public class SearchEngine {
+    public static final int WIN_SCORE = 1_000_000_000;  //Score of a win right now, every ply to get there costs 1
+    public static final int MAX_PLIES = 1_000_000;  //No game can be longer, so scores above WIN_SCORE - MAX_PLIES are wins
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int BUDGET_CHECK_INTERVAL = 1024;  //Nodes between clock reads
+
+    private final int numToWin;
+    private long timeLimitMillis;  //0 means no time limit
+    private long nodeLimit;  //0 means no node limit
+    private int maxDepth;  //0 means search until the board is full
+    private TranspositionTable table;  //null means no table
+    private int threads = 1;
+
+    //State of the running search
+    private Grid grid;
+    private long nodes;
+    private long deadline;
+    private boolean canAbort;  //Only once an iteration has finished, so there's always a move to return
+    private boolean aborted;
+    private MoveOrdering ordering;
+    private ThreatEvaluator evaluator;
+    private int[][] moveLists;  //One list per ply, allocated the first time the ply is reached
+    private int startDepth = 1;  //Helpers start at different depths so they don't all search the same tree
+    private volatile boolean stopRequested;
+
+    public SearchEngine(int numToWin) {
+        this.numToWin = numToWin;
+    }
+
+    public void setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Sets how many threads search each move, more than one only helps with a transposition table to share
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Asks a running search, from any thread, to return as soon as it can with the best move found so far
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Forgets an earlier {@link #stop()}; call it once per move, before the search is handed to another thread,
+     * so a stop that arrives before the search starts still ends it
+     */
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Searches for the best column for symbol, deepening until the budget runs out or the result is certain.
+     * @param grid The position to search, it's modified during the search and restored before returning.
+     * @param symbol The player to move ('X' or 'O').
+     * @return The best column of the deepest finished iteration, and its score
+     */
+    public SearchResult search(Grid grid, char symbol) {
+        if (threads == 1 || table == null) {
+            return searchAlone(grid, symbol);
+        }
+
+        SearchEngine[] helpers = new SearchEngine[threads - 1];
+        Thread[] helperThreads = new Thread[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            SearchEngine helper = new SearchEngine(numToWin);
+            helper.table = table;
+            helper.maxDepth = maxDepth;
+            helper.startDepth = 1 + (i + 1) % 2;
+            Grid helperGrid = grid.copy();
+            helpers[i] = helper;
+            helperThreads[i] = new Thread(() -> helper.searchAlone(helperGrid, symbol), "search-helper-" + (i + 1));
+            helperThreads[i].setDaemon(true);
+            helperThreads[i].start();
+        }
+
+        SearchResult result = searchAlone(grid, symbol);
+
+        long totalNodes = result.getNodes();
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i].stopRequested = true;
+            try {
+                helperThreads[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            totalNodes += helpers[i].nodes;
+        }
+        return new SearchResult(result.getColumn(), result.getScore(), result.getDepth(), totalNodes, result.getElapsedMillis());
+    }
+
+    /**
+     * The single-threaded search, run by the main thread and by every helper.
+     */
+    private SearchResult searchAlone(Grid grid, char symbol) {
+        long start = System.currentTimeMillis();
+        this.grid = grid;
+        ordering = new MoveOrdering(grid.getRows(), grid.getCols());
+        evaluator = new ThreatEvaluator(grid.getRows(), grid.getCols(), numToWin);
+        evaluator.load(grid);
+        moveLists = new int[grid.getRows() * grid.getCols() + 1][];
+        nodes = 0;
+        deadline = start + timeLimitMillis;
+        canAbort = false;
+        aborted = false;
+
+        int emptyCells = grid.getRows() * grid.getCols() - grid.getMoveCount();
+        int depthLimit = (maxDepth > 0) ? Math.min(maxDepth, emptyCells) : emptyCells;
+
+        int bestColumn = firstOpenColumn();
+        int bestScore = 0;
+        int finishedDepth = 0;
+        for (int depth = Math.min(startDepth, depthLimit); depth <= depthLimit; depth++) {
+            int[] result = searchRoot(depth, symbol);
+            if (aborted) {
+                break;
+            }
+            bestColumn = result[0];
+            bestScore = result[1];
+            finishedDepth = depth;
+            canAbort = true;
+
+            //A forced win or loss won't change by looking deeper
+            if (Math.abs(bestScore) > WIN_SCORE - MAX_PLIES) {
+                break;
+            }
+        }
+
+        this.grid = null;
+        moveLists = null;
+        return new SearchResult(bestColumn, bestScore, finishedDepth, nodes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Runs one fixed-depth iteration from the root.
+     * @return {best column, its score}
+     */
+    private int[] searchRoot(int depth, char symbol) {
+        int alpha = -INFINITY;
+        int bestColumn = -1;
+        long key = Zobrist.withMover(grid.getHash(), symbol);
+        int[] moves = moveList(0);
+        int count = ordering.order(grid, symbol, numToWin, probeMove(key), 0, moves);
+
+        for (int i = 0; i < count; i++) {
+            int col = moves[i];
+            int score = scoreMove(col, depth, alpha, INFINITY, symbol, 0);
+            if (aborted) {
+                break;
+            }
+            //Fail-soft: a later move scoring exactly alpha is only known to be no better, so ties keep the earlier
+            //move, and the ordering already tries the center first
+            if (score > alpha || bestColumn == -1) {
+                alpha = score;
+                bestColumn = col;
+            }
+        }
+        if (table != null && !aborted) {
+            table.store(key, toTableScore(alpha, 0), depth, bestColumn, TranspositionTable.EXACT);
+        }
+        return new int[]{bestColumn, alpha};
+    }
+
+    /**
+     * Negamax with alpha-beta pruning.
+     * @return The score of the position for symbol, who is to move
+     */
+    private int negamax(int depth, int alpha, int beta, char symbol, int ply) {
+        if (grid.isGridFull()) {
+            return 0;  //Nobody has won, it's a draw
+        }
+        if (depth == 0) {
+            return evaluator.getScore(symbol);
+        }
+
+        long key = Zobrist.withMover(grid.getHash(), symbol);
+        int tableMove = -1;
+        if (table != null) {
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                tableMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int score = fromTableScore(TranspositionTable.score(entry), ply);
+                    switch (TranspositionTable.kind(entry)) {
+                        case TranspositionTable.EXACT -> {
+                            return score;
+                        }
+                        case TranspositionTable.LOWER_BOUND -> alpha = Math.max(alpha, score);
+                        default -> beta = Math.min(beta, score);
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestColumn = -1;
+        int[] moves = moveList(ply);
+        int count = ordering.order(grid, symbol, numToWin, tableMove, ply, moves);
+
+        for (int i = 0; i < count; i++) {
+            int col = moves[i];
+            int score = scoreMove(col, depth, alpha, beta, symbol, ply);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestColumn = col;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                ordering.recordCutoff(symbol, col, depth, ply);
+                break;  //The opponent won't allow this line
+            }
+        }
+
+        if (table != null) {
+            int kind = (best <= originalAlpha) ? TranspositionTable.UPPER_BOUND
+                    : (best >= beta) ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(key, toTableScore(best, ply), depth, bestColumn, kind);
+        }
+        return best;
+    }
+
+    private int[] moveList(int ply) {
+        if (moveLists[ply] == null) {
+            moveLists[ply] = new int[grid.getCols()];
+        }
+        return moveLists[ply];
+    }
+
+    private int probeMove(long key) {
+        if (table == null) {
+            return -1;
+        }
+        long entry = table.probe(key);
+        return (entry == TranspositionTable.MISS) ? -1 : TranspositionTable.move(entry);
+    }
+
+    /**
+     * Win scores count plies from the root, the table keeps them counted from the stored position
+     * so they stay right when the position is reached at another ply.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score > WIN_SCORE - MAX_PLIES) {
+            return score + ply;
+        } else if (score < -(WIN_SCORE - MAX_PLIES)) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score > WIN_SCORE - MAX_PLIES) {
+            return score - ply;
+        } else if (score < -(WIN_SCORE - MAX_PLIES)) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Plays col for symbol, scores the resulting position and takes the move back.
+     */
+    private int scoreMove(int col, int depth, int alpha, int beta, char symbol, int ply) {
+        if (++nodes % BUDGET_CHECK_INTERVAL == 0 && (stopRequested || (canAbort && isOutOfBudget()))) {
+            aborted = true;
+            return 0;
+        }
+
+        if (grid.isWinningDrop(col, symbol, numToWin)) {
+            return WIN_SCORE - ply - 1;  //No need to play it out
+        }
+
+        grid.play(symbol, col);
+        int row = grid.getLastRow();
+        evaluator.drop(row, col, symbol);
+        int score = -negamax(depth - 1, -beta, -alpha, opponentOf(symbol), ply + 1);
+        evaluator.undo(row, col, symbol);
+        grid.undo();
+        return score;
+    }
+
+    private boolean isOutOfBudget() {
+        return (nodeLimit > 0 && nodes >= nodeLimit) || (timeLimitMillis > 0 && System.currentTimeMillis() >= deadline);
+    }
+
+    private int firstOpenColumn() {
+        for (int col = 0; col < grid.getCols(); col++) {
+            if (!grid.isColumnFull(col)) {
+                return col;
+            }
+        }
+        return -1;
+    }
+
+    public static char opponentOf(char symbol) {
+        return (symbol == 'X') ? 'O' : 'X';
+    }
+}
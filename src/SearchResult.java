@@ -0,0 +1,67 @@
+/**
+ * What the search engine decided: the column to play and how good it thinks it is.
+ */
+public class SearchResult {
+    private final int column;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMillis;
+
+    public SearchResult(int column, int score, int depth, long nodes, long elapsedMillis) {
+        this.column = column;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return The best column found, 0-based
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return The score from the point of view of the player to move: positive is good for them,
+     * {@link SearchEngine#WIN_SCORE} minus the plies to go is a forced win
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return The deepest iteration that finished
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return Positions searched per second, over all search threads
+     */
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, elapsedMillis);
+    }
+
+    /**
+     * @return true if the score is a forced win or loss rather than a guess
+     */
+    public boolean isDecisive() {
+        return Math.abs(score) > SearchEngine.WIN_SCORE - SearchEngine.MAX_PLIES;
+    }
+
+    @Override
+    public String toString() {
+        return "column " + (column + 1) + ", score " + score + ", depth " + depth + ", " + nodes + " nodes in " + elapsedMillis + "ms";
+    }
+}
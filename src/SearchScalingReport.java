@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how the search scales with threads: searches the same positions with 1, 2, 4... up to
+ * every available core and prints nodes per second, depth reached and speedup over one thread.
+ * Usage: java SearchScalingReport [rows cols numToWin millisPerPosition]
+ */
+public class SearchScalingReport {
+    private static final int TABLE_SIZE_MB = 64;
+    //Opening moves (0-based columns) of the positions to search, with the geometry's center added below
+    private static final int[][] OPENINGS = {{}, {0, 1}, {1, 2, 1, 0}};
+
+    public static void main(String[] args) {
+        int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+        int cols = (args.length > 1) ? Integer.parseInt(args[1]) : 7;
+        int numToWin = (args.length > 2) ? Integer.parseInt(args[2]) : 4;
+        long millis = (args.length > 3) ? Long.parseLong(args[3]) : 2000;
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        System.out.println("Search scaling on " + rows + "x" + cols + ", " + numToWin + " to win, "
+                + millis + "ms per position, " + cores + " cores");
+        System.out.printf("%-10s%-15s%-12s%-10s%n", "Threads", "Nodes/sec", "Avg depth", "Speedup");
+
+        long baseline = 0;
+        for (int threads : threadCounts) {
+            long nodes = 0, elapsed = 0, depths = 0;
+            for (int[] opening : OPENINGS) {
+                SearchEngine engine = new SearchEngine(numToWin);
+                engine.setTimeLimitMillis(millis);
+                engine.setThreads(threads);
+                engine.setTranspositionTable(new TranspositionTable(TABLE_SIZE_MB, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+
+                Grid grid = Grid.create(rows, cols, numToWin);
+                char symbol = play(grid, opening);
+                SearchResult result = engine.search(grid, symbol);
+                nodes += result.getNodes();
+                elapsed += result.getElapsedMillis();
+                depths += result.getDepth();
+            }
+            long nodesPerSecond = nodes * 1000 / Math.max(1, elapsed);
+            if (baseline == 0) {
+                baseline = Math.max(1, nodesPerSecond);
+            }
+            System.out.printf("%-10d%-15d%-12.1f%-10.2f%n", threads, nodesPerSecond,
+                    (double) depths / OPENINGS.length, (double) nodesPerSecond / baseline);
+        }
+    }
+
+    /**
+     * Plays the opening moves (shifted to the middle of the board), X first
+     * @return The symbol to move next
+     */
+    private static char play(Grid grid, int[] opening) {
+        int offset = Math.max(0, (grid.getCols() - 3) / 2);
+        char symbol = 'X';
+        for (int col : opening) {
+            int shifted = Math.min(col + offset, grid.getCols() - 1);
+            if (grid.isColumnFull(shifted)) {
+                continue;  //Small boards, just skip the move
+            }
+            grid.play(symbol, shifted);
+            symbol = SearchEngine.opponentOf(symbol);
+        }
+        return symbol;
+    }
+}
@@ -1,71 +1,147 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public class SmartMachinePlayer extends MachinePlayer{
 
-    private final char opponentSymbol;
+    static final long DEFAULT_TIME_LIMIT_MILLIS = 500;  //About as long as the old fixed delay, but spent thinking
+    static final int DEFAULT_TABLE_SIZE_MB = 16;
+
+    private final SearchEngine engine;
+    private final OpeningBook book;  //null when there's no book for this geometry
 
     public SmartMachinePlayer(Character symbol, Game game) {
         super(symbol, game);
         name = "Smart Machine";
-        opponentSymbol = (symbol == 'X') ? 'O' : 'X';
+        engine = new SearchEngine(game.getNumToWin());
+        engine.setTimeLimitMillis(DEFAULT_TIME_LIMIT_MILLIS);
+        engine.setTranspositionTable(new TranspositionTable(DEFAULT_TABLE_SIZE_MB, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+        book = OpeningBook.forGeometry(game.getGrid().getRows(), game.getGrid().getCols(), game.getNumToWin());
     }
 
+    /**
+     * Plays the opening book's move if the position is in it, otherwise
+     * searches the position and plays the best column found within the budget
+     */
     @Override
     public void makeMove() {
-        try {
-            Thread.sleep(500);  //Add delay for machine's move
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        //Check if the machine can win with the next move
-        if (!makeWinningMove()) {
+        clearStop();
+        if (makeBookMove()) {
             return;
         }
 
-        //Check if the opponent can win and block that move
-        if (!blockOpponentWinningMove()) {
-            return;
+        SearchResult result = engine.search(game.getGrid().copy(), symbol);
+        try {
+            game.getGrid().updateGrid(symbol, result.getColumn());
+            System.out.println("MachinePlayer played " + result);
+        } catch (FullCollumnException e) {
+            //Shouldn't happen, the engine only picks open columns
+            makeRandomMove();
         }
+    }
 
-        //If no strategic move is found, make a random move
-        makeRandomMove();
+    /**
+     * Picks the opening book's column if the position is in it, otherwise the search's best column
+     */
+    @Override
+    public int chooseColumn(Grid grid, char symbol) {
+        clearStop();
+        return thinkColumn(grid, symbol);
     }
 
     /**
-     * Blocks opponent's winning move if possible.
-     * @return true if no blocking move was made, false if blocked successfully.
+     * Picks a column for the current position on the executor, so the caller (like the Swing thread) doesn't wait.
+     * The machine thinks on a copy, the game's grid is free to change meanwhile.
+     * A {@link #stopThinking()} from the moment this returns ends the choice, even before the executor starts it.
+     * @return The column, once found
      */
-    private boolean blockOpponentWinningMove() {
-        Player opponent = null;
-        for (Player player : game.getPlayers()) {
-            if (player.getSymbol() == opponentSymbol) {
-                opponent = player;
-                break;
-            }
-        }
+    public CompletableFuture<Integer> chooseColumnAsync(Executor executor) {
+        Grid position = game.getGrid().copy();
+        clearStop();
+        return CompletableFuture.supplyAsync(() -> thinkColumn(position, symbol), executor);
+    }
 
-        if (opponent == null)
-            return false;
+    /**
+     * Picks a column like {@link #chooseColumn}, but keeps a stop asked for since the last {@link #clearStop()}
+     */
+    protected int thinkColumn(Grid grid, char symbol) {
+        int col = bookColumn(grid, symbol);
+        return (col != -1) ? col : engine.search(grid.copy(), symbol).getColumn();
+    }
+
+    /**
+     * Makes a running move choice return early, from any thread
+     */
+    public void stopThinking() {
+        engine.stop();
+    }
 
-        for (int col = 0; col < game.getGrid().getCols(); col++) {
-            int emptyRow = game.getGrid().findEmptyRowInColumn(col);
-            if (emptyRow != -1) {
-
-                //Temporarily place the opponent's symbol in the grid
-                Character originalValue = game.getGrid().getBoard()[emptyRow][col];
-                game.getGrid().getBoard()[emptyRow][col] = opponentSymbol;
-
-                // Check if this would cause the opponent to win
-                if (game.gameRules.checkGameOver(opponent)) {
-                    //Block the opponent by placing the machine's symbol instead
-                    game.getGrid().getBoard()[emptyRow][col] = symbol;
-                    System.out.println("MachinePlayer blocked opponent in column " + (col + 1));
-                    return false;
-                }
-
-                //Undo the temporary move by restoring the original value
-                game.getGrid().getBoard()[emptyRow][col] = originalValue;
-            }
+    /**
+     * Forgets an earlier {@link #stopThinking()}, once per move before thinking starts
+     */
+    protected void clearStop() {
+        engine.clearStop();
+    }
+
+    /**
+     * @return true if the position was in the opening book and its move was played
+     */
+    private boolean makeBookMove() {
+        Grid grid = game.getGrid();
+        int col = bookColumn(grid, symbol);
+        if (col == -1) {
+            return false;
         }
+        grid.play(symbol, col);
+        System.out.println("MachinePlayer played column " + (col + 1) + " from the opening book");
         return true;
     }
+
+    /**
+     * @return The opening book's column for the position, or -1 if it isn't in the book
+     */
+    private int bookColumn(Grid grid, char symbol) {
+        if (book == null) {
+            return -1;
+        }
+        int entry = book.find(Zobrist.withMover(grid.getHash(), symbol));
+        if (entry == -1 || grid.isColumnFull(book.moveAt(entry))) {
+            return -1;
+        }
+        return book.moveAt(entry);
+    }
+
+    /**
+     * Limits how long a move may take, 0 for no limit
+     */
+    public void setTimeLimitMillis(long timeLimitMillis) {
+        engine.setTimeLimitMillis(timeLimitMillis);
+    }
+
+    /**
+     * Limits how many positions a move may look at, 0 for no limit
+     */
+    public void setNodeLimit(long nodeLimit) {
+        engine.setNodeLimit(nodeLimit);
+    }
+
+    /**
+     * Sets how many threads search each move
+     */
+    public void setThreads(int threads) {
+        engine.setThreads(threads);
+    }
+
+    /**
+     * Forgets every position stored by earlier searches
+     */
+    public void clearTranspositionTable() {
+        engine.getTranspositionTable().clear();
+    }
+
+    /**
+     * Replaces the transposition table with one of the given size (in MB) and replacement policy
+     */
+    public void setTranspositionTable(int sizeMb, TranspositionTable.ReplacementPolicy policy) {
+        engine.setTranspositionTable(new TranspositionTable(sizeMb, policy));
+    }
 }
@@ -0,0 +1,369 @@
+/**
+ * Solves the classic 6x7, four-in-a-row game exactly.
+ * A position is two bitboards, the tokens of the player to move and all tokens, laid out like
+ * {@link BitboardGrid} (column after column, with an empty bit on top of each).
+ * The search is negamax over a null window, narrowed by binary search on the score, with a transposition
+ * table, center-first ordering by the number of threats a move creates, and a filter that drops
+ * moves which would let the opponent win right away.
+ * Scores: a win scores (43 - moves played before the winning move) / 2, positive for the player to move.
+ */
+public class Solver {
+    public static final int ROWS = 6, COLS = 7, NUM_TO_WIN = 4;
+
+    private static final int COLUMN_HEIGHT = ROWS + 1;
+    private static final int CELLS = ROWS * COLS;
+    private static final long BOTTOM = bottom();
+    private static final long BOARD = BOTTOM * ((1L << ROWS) - 1);
+    private static final int[] COLUMN_ORDER = MoveOrdering.centerOut(COLS);
+    private static final int[] LINE_SHIFTS = {COLUMN_HEIGHT, COLUMN_HEIGHT - 1, COLUMN_HEIGHT + 1};  //Horizontal, both diagonals
+    private static final int DEFAULT_TABLE_SIZE_MB = 64;
+
+    //The position being solved
+    private long current;  //Tokens of the player to move
+    private long mask;  //All tokens
+    private int moves;
+
+    private final TranspositionTable table;
+    private final long[][] candidates = new long[CELLS][COLS];  //Move ordering scratch, per number of moves played
+    private final int[][] candidateScores = new int[CELLS][COLS];
+    private long nodes;
+    private long nodeLimit;  //0 means no limit
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    public Solver() {
+        this(DEFAULT_TABLE_SIZE_MB);
+    }
+
+    public Solver(int tableSizeMb) {
+        table = new TranspositionTable(tableSizeMb, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    /**
+     * @return true if the solver can handle this geometry
+     */
+    public static boolean supports(int rows, int cols, int numToWin) {
+        return rows == ROWS && cols == COLS && numToWin == NUM_TO_WIN;
+    }
+
+    /**
+     * Gives up a solve after this many positions, 0 for no limit
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Asks a running solve, from any thread, to give up
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Forgets an earlier {@link #stop()}; call it once per move, before the solve starts
+     */
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Solves the position and finds the best move in it.
+     * @param grid A 6x7 grid where nobody has won yet and there is room to play.
+     * @param symbol The player to move.
+     * @return The exact result, or <b>null</b> if the node limit ran out or it was stopped first
+     */
+    public SolverResult solve(Grid grid, char symbol) {
+        if (!supports(grid.getRows(), grid.getCols(), grid.getNumToWin())) {
+            throw new IllegalArgumentException("The solver only plays " + ROWS + "x" + COLS + ", " + NUM_TO_WIN + " to win");
+        }
+        load(grid, symbol);
+        nodes = 0;
+        aborted = false;
+
+        //A win right away needs no search
+        for (int col : COLUMN_ORDER) {
+            if (canPlay(col) && isWinningMove(col)) {
+                return result(col, (CELLS + 1 - moves) / 2);
+            }
+        }
+
+        int score = solve();
+        if (aborted) {
+            return null;
+        }
+
+        //Knowing the score, one null-window search per move is enough to find a move that keeps it
+        int bestColumn = -1;
+        for (int col : COLUMN_ORDER) {
+            if (!canPlay(col)) {
+                continue;
+            }
+            if (bestColumn == -1) {
+                bestColumn = col;  //Every move loses as fast, play the center-most one
+            }
+            long savedCurrent = current, savedMask = mask;
+            play(possible() & columnMask(col));
+            boolean keepsScore = !canWinNext() && negamax(-score, -score + 1) <= -score;
+            current = savedCurrent;
+            mask = savedMask;
+            moves--;
+            if (aborted) {
+                return null;
+            }
+            if (keepsScore) {
+                bestColumn = col;
+                break;
+            }
+        }
+        return result(bestColumn, score);
+    }
+
+    private SolverResult result(int column, int score) {
+        SolverResult.Outcome outcome;
+        int pliesToEnd;
+        if (score > 0) {
+            outcome = SolverResult.Outcome.WIN;
+            pliesToEnd = movesBeforeWin(score, moves) - moves + 1;
+        } else if (score < 0) {
+            outcome = SolverResult.Outcome.LOSS;
+            pliesToEnd = movesBeforeWin(-score, moves + 1) - moves + 1;
+        } else {
+            outcome = SolverResult.Outcome.DRAW;
+            pliesToEnd = CELLS - moves;
+        }
+        return new SolverResult(column, score, outcome, pliesToEnd, nodes);
+    }
+
+    /**
+     * Turns a win score back into the number of moves played before the winning one.
+     * @param winnerParity A move count with the same parity as the winner's turns.
+     */
+    private static int movesBeforeWin(int score, int winnerParity) {
+        return (winnerParity % 2 == 0) ? CELLS - 2 * score : CELLS + 1 - 2 * score;
+    }
+
+    private void load(Grid grid, char symbol) {
+        current = 0;
+        mask = 0;
+        moves = grid.getMoveCount();
+        for (int col = 0; col < COLS; col++) {
+            for (int row = 0; row < ROWS; row++) {
+                Character cell = grid.getCell(row, col);
+                if (cell == null) {
+                    break;
+                }
+                long bit = 1L << (col * COLUMN_HEIGHT + row);
+                mask |= bit;
+                if (cell == symbol) {
+                    current |= bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the exact score by narrowing [min, max] with null-window searches.
+     */
+    private int solve() {
+        if (canWinNext()) {
+            return (CELLS + 1 - moves) / 2;
+        }
+        int min = -(CELLS - moves) / 2;
+        int max = (CELLS + 1 - moves) / 2;
+        while (min < max && !aborted) {
+            int middle = min + (max - min) / 2;
+            //Lean towards 0 first, most positions are decided close to it
+            if (middle <= 0 && min / 2 < middle) {
+                middle = min / 2;
+            } else if (middle >= 0 && max / 2 > middle) {
+                middle = max / 2;
+            }
+            int score = negamax(middle, middle + 1);
+            if (score <= middle) {
+                max = score;
+            } else {
+                min = score;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Negamax for a position where the player to move can't win right away.
+     * @return The exact score if it's inside (alpha, beta), otherwise a bound on the side it fell
+     */
+    private int negamax(int alpha, int beta) {
+        if (++nodes % 4096 == 0 && (stopRequested || (nodeLimit > 0 && nodes >= nodeLimit))) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long next = possibleNonLosingMoves();
+        if (next == 0) {
+            return -(CELLS - moves) / 2;  //Every move loses, the opponent wins on their next move
+        }
+        if (moves >= CELLS - 2) {
+            return 0;  //Nobody can win in the last two moves
+        }
+
+        int min = -(CELLS - 2 - moves) / 2;  //The opponent can't win on their next move
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+        int max = (CELLS - 1 - moves) / 2;  //We can't win on this move
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+
+        long key = key();
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            int stored = TranspositionTable.score(entry);
+            if (TranspositionTable.kind(entry) == TranspositionTable.LOWER_BOUND) {
+                if (alpha < stored) {
+                    alpha = stored;
+                    if (alpha >= beta) {
+                        return alpha;
+                    }
+                }
+            } else if (beta > stored) {
+                beta = stored;
+                if (alpha >= beta) {
+                    return beta;
+                }
+            }
+        }
+
+        //Order by how many winning spots the move leaves us, center first among equals
+        long[] candidates = this.candidates[moves];
+        int[] scores = candidateScores[moves];
+        int count = 0;
+        for (int col : COLUMN_ORDER) {
+            long move = next & columnMask(col);
+            if (move == 0) {
+                continue;
+            }
+            int score = Long.bitCount(winningPositions(current | move, mask));
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                candidates[i] = candidates[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            candidates[i] = move;
+            scores[i] = score;
+        }
+
+        for (int i = 0; i < count; i++) {
+            long savedCurrent = current, savedMask = mask;
+            play(candidates[i]);
+            int score = -negamax(-beta, -alpha);
+            current = savedCurrent;
+            mask = savedMask;
+            moves--;
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                table.store(key, score, 0, -1, TranspositionTable.LOWER_BOUND);
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        table.store(key, alpha, 0, -1, TranspositionTable.UPPER_BOUND);
+        return alpha;
+    }
+
+    //Bitboard helpers
+
+    private void play(long move) {
+        current ^= mask;  //The opponent becomes the player to move
+        mask |= move;
+        moves++;
+    }
+
+    private boolean canPlay(int col) {
+        return (mask & topMask(col)) == 0;
+    }
+
+    private boolean isWinningMove(int col) {
+        return (winningPositions(current, mask) & possible() & columnMask(col)) != 0;
+    }
+
+    private boolean canWinNext() {
+        return (winningPositions(current, mask) & possible()) != 0;
+    }
+
+    private long possible() {
+        return (mask + BOTTOM) & BOARD;
+    }
+
+    /**
+     * @return The moves that don't hand the opponent a win: the forced block if there is one,
+     * and never the cell right under an opponent's winning spot
+     */
+    private long possibleNonLosingMoves() {
+        long possible = possible();
+        long opponentWins = winningPositions(current ^ mask, mask);
+        long forced = possible & opponentWins;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) {
+                return 0;  //Two threats at once, can't block both
+            }
+            possible = forced;
+        }
+        return possible & ~(opponentWins >>> 1);
+    }
+
+    /**
+     * Mixes the position's unique key so it spreads over the table's buckets
+     */
+    private long key() {
+        return (current + mask) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * @return The empty cells that would complete a line of four for the player owning position
+     */
+    private static long winningPositions(long position, long mask) {
+        //Vertical
+        long result = (position << 1) & (position << 2) & (position << 3);
+
+        for (int shift : LINE_SHIFTS) {
+            long pair = (position << shift) & (position << 2 * shift);
+            result |= pair & (position << 3 * shift);
+            result |= pair & (position >>> shift);
+            pair = (position >>> shift) & (position >>> 2 * shift);
+            result |= pair & (position << shift);
+            result |= pair & (position >>> 3 * shift);
+        }
+        return result & (BOARD ^ mask);
+    }
+
+    private static long bottom() {
+        long bottom = 0;
+        for (int col = 0; col < COLS; col++) {
+            bottom |= 1L << (col * COLUMN_HEIGHT);
+        }
+        return bottom;
+    }
+
+    private static long topMask(int col) {
+        return 1L << (ROWS - 1 + col * COLUMN_HEIGHT);
+    }
+
+    private static long columnMask(int col) {
+        return ((1L << ROWS) - 1) << (col * COLUMN_HEIGHT);
+    }
+}
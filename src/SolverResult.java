@@ -0,0 +1,60 @@
+/**
+ * The exact value of a position as found by {@link Solver}.
+ */
+public class SolverResult {
+
+    /**
+     * How the game ends with perfect play, for the player to move.
+     */
+    public enum Outcome {
+        WIN, DRAW, LOSS
+    }
+
+    private final int column;
+    private final int score;
+    private final Outcome outcome;
+    private final int pliesToEnd;
+    private final long nodes;
+
+    public SolverResult(int column, int score, Outcome outcome, int pliesToEnd, long nodes) {
+        this.column = column;
+        this.score = score;
+        this.outcome = outcome;
+        this.pliesToEnd = pliesToEnd;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return The best column, 0-based: the fastest win, the slowest loss, or a drawing move
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return Positive if the player to move wins, the sooner the higher; negative if they lose; 0 for a draw
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return Moves (of both players) until the game ends with perfect play, including the winning move
+     */
+    public int getPliesToEnd() {
+        return pliesToEnd;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return outcome + " in " + pliesToEnd + " plies, column " + (column + 1) + " (" + nodes + " nodes)";
+    }
+}
@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects game results from any number of threads and writes them to a {@link StatisticsStore} in batches.
+ * Each player has four LongAdders in a ConcurrentHashMap, so recording a result takes no global lock.
+ * A background thread flushes every {@link #FLUSH_INTERVAL_MILLIS}, or sooner once
+ * {@link #FLUSH_AFTER_RESULTS} results are waiting; each flush is one group commit of the store's journal,
+ * a single disk sync however many games it holds. The store itself is only touched under this object's lock.
+ * Results are collected in generations: a flush swaps in a fresh one and waits for the threads still adding
+ * to the old one before draining it, so every result (both players of a game included) lands whole in one flush.
+ */
+public final class StatisticsAggregator {
+    static final long FLUSH_INTERVAL_MILLIS = 1000;
+    static final int FLUSH_AFTER_RESULTS = 10_000;
+
+    private static final int STRIPES = 64;  //A power of two, threads spread over them by id
+    private static final int STRIPE_SPACING = 16;  //Ints between two stripes, so each has its own cache line
+
+    /**
+     * One player's results in one generation
+     */
+    private static class Counters {
+        final LongAdder games = new LongAdder();
+        final LongAdder wins = new LongAdder();
+        final LongAdder losses = new LongAdder();
+        final LongAdder draws = new LongAdder();
+    }
+
+    /**
+     * The results recorded between two flushes, and how many threads are adding to them right now
+     */
+    private static class Generation {
+        final Map<String, Counters> counters = new ConcurrentHashMap<>();
+        final AtomicIntegerArray writers = new AtomicIntegerArray(STRIPES * STRIPE_SPACING);
+        volatile boolean sealed;  //Set by the flush that swapped it out, writers move on to the next one
+
+        void add(String name, int games, int wins, int losses, int draws) {
+            Counters player = counters.computeIfAbsent(name, key -> new Counters());
+            player.games.add(games);
+            player.wins.add(wins);
+            player.losses.add(losses);
+            player.draws.add(draws);
+        }
+
+        /**
+         * @return true once no thread is adding to this generation; after it's sealed that stays true
+         */
+        boolean isIdle() {
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                if (writers.get(stripe * STRIPE_SPACING) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final StatisticsStore store;
+    private volatile Generation current = new Generation();
+    private final LongAdder pending = new LongAdder();  //Results recorded since the last flush
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    public StatisticsAggregator(StatisticsStore store) {
+        this.store = store;
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "statistics-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a finished game: one more game for both, a win for one and a loss for the other
+     */
+    public void recordWin(String winner, String loser) {
+        int stripe = stripe();
+        Generation generation = enter(stripe);
+        generation.add(winner, 1, 1, 0, 0);
+        generation.add(loser, 1, 0, 1, 0);
+        leave(generation, stripe);
+    }
+
+    /**
+     * Records a finished game that nobody won
+     */
+    public void recordDraw(String player, String opponent) {
+        int stripe = stripe();
+        Generation generation = enter(stripe);
+        generation.add(player, 1, 0, 0, 1);
+        generation.add(opponent, 1, 0, 0, 1);
+        leave(generation, stripe);
+    }
+
+    /**
+     * Adds to a player's totals, safe from any thread
+     */
+    public void record(String name, int games, int wins, int losses, int draws) {
+        int stripe = stripe();
+        Generation generation = enter(stripe);
+        generation.add(name, games, wins, losses, draws);
+        leave(generation, stripe);
+    }
+
+    private static int stripe() {
+        return (int) Thread.currentThread().threadId() & (STRIPES - 1);
+    }
+
+    /**
+     * Joins the current generation's writers
+     * @return The generation to add to, which no flush drains before {@link #leave}
+     */
+    private Generation enter(int stripe) {
+        while (true) {
+            Generation generation = current;
+            generation.writers.incrementAndGet(stripe * STRIPE_SPACING);
+            if (!generation.sealed) {
+                return generation;
+            }
+            generation.writers.decrementAndGet(stripe * STRIPE_SPACING);  //A flush swapped it out, use the new one
+        }
+    }
+
+    private void leave(Generation generation, int stripe) {
+        generation.writers.decrementAndGet(stripe * STRIPE_SPACING);
+        pending.increment();
+        if (pending.sum() >= FLUSH_AFTER_RESULTS && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Writes everything recorded so far to the store and flushes the store
+     */
+    public void flush() throws IOException {
+        flush(true);
+    }
+
+    /**
+     * @param always Whether to flush the store even when nothing was recorded since the last flush
+     */
+    private synchronized void flush(boolean always) throws IOException {
+        flushQueued.set(false);
+        pending.reset();
+        Generation drained = current;
+        current = new Generation();
+        drained.sealed = true;
+        while (!drained.isIdle()) {
+            Thread.onSpinWait();  //Only as long as a few counter updates take
+        }
+
+        boolean recorded = false;
+        List<Map.Entry<String, Counters>> entries = new ArrayList<>(drained.counters.entrySet());
+        for (int i = 0; i < entries.size(); i++) {
+            Counters player = entries.get(i).getValue();
+            int games = player.games.intValue();
+            int wins = player.wins.intValue();
+            int losses = player.losses.intValue();
+            int draws = player.draws.intValue();
+            if (games != 0 || wins != 0 || losses != 0 || draws != 0) {
+                try {
+                    store.record(entries.get(i).getKey(), games, wins, losses, draws);
+                    recorded = true;
+                } catch (IllegalArgumentException e) {
+                    //A name the store can't hold, it would fail every flush
+                    System.err.println("Dropped the results of " + entries.get(i).getKey() + ": " + e.getMessage());
+                } catch (IOException e) {
+                    requeue(entries.subList(i, entries.size()));  //Keep what wasn't written for the next flush
+                    throw e;
+                }
+            }
+        }
+        if (recorded || always) {
+            store.flush();
+        }
+    }
+
+    private void requeue(List<Map.Entry<String, Counters>> entries) {
+        for (Map.Entry<String, Counters> entry : entries) {
+            Counters player = entry.getValue();
+            record(entry.getKey(), player.games.intValue(), player.wins.intValue(), player.losses.intValue(),
+                    player.draws.intValue());
+        }
+    }
+
+    /**
+     * Flushes, then checkpoints the store: its files are made durable and its journal emptied
+     */
+    public synchronized void checkpoint() throws IOException {
+        flush(false);
+        store.checkpoint();
+    }
+
+    /**
+     * Creates the player in the store right away, with empty totals, if it has no record
+     */
+    public synchronized void addPlayer(String name) throws IOException {
+        if (store.get(name) == null) {
+            store.record(name, 0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * @return The player's totals including results not flushed yet, or <b>null</b> for an unknown player
+     */
+    public synchronized PlayerRecord get(String name) {
+        PlayerRecord record = store.get(name);
+        Counters player = current.counters.get(name);
+        if (player == null) {
+            return record;
+        }
+        if (record == null) {
+            record = new PlayerRecord(name, 0, 0, 0, 0);
+        }
+        record.add(player.games.intValue(), player.wins.intValue(), player.losses.intValue(), player.draws.intValue());
+        return record;
+    }
+
+    /**
+     * Flushes, then reads one page of players from the store
+     * @see StatisticsStore#getRecords(int, int)
+     */
+    public synchronized List<PlayerRecord> getRecords(int from, int count) throws IOException {
+        flush(false);
+        return store.getRecords(from, count);
+    }
+
+    /**
+     * @return How many players the store has a record for
+     */
+    public synchronized int size() {
+        return store.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush(false);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("An error occurred while flushing the statistics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the background flusher and writes what's left
+     */
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
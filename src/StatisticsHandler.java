@@ -1,59 +1,96 @@
 import java.io.*;
-import java.util.Map;
-import java.util.TreeMap;
 
 public class StatisticsHandler {
-    private static final Map<String, String> fileData = new TreeMap<>();  // Use a TreeMap to store player data sorted by name
+    static final int STATS_PAGE_SIZE = 20;  //Players shown when the game starts
+
+    private static StatisticsStore store;  //Typed totals over the stats file and its journal
+    private static volatile StatisticsAggregator aggregator;  //Every result goes through here, from any thread
 
     /**
      * Initiates a stats handling object
-     * Reads the file content and stores it in a Map
+     * Maps the binary stats file kept next to the given one (migrating it the first time), recovers what the
+     * journal holds beyond it (dropping an entry a crash cut short) and starts collecting results
      * @param statisticsFile The file to read the stats from
      */
-    public static void initStatisticsHandler(File statisticsFile) {
-        fileData.clear();
-        String line = "";
-        try (BufferedReader reader = new BufferedReader(new FileReader(statisticsFile))) {
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", 2);  // Split into player name and the rest
-                if (parts.length == 2) {
-                    fileData.put(parts[0].trim(), parts[1].trim());  // Store in the map
-                }
-            }
+    public static synchronized void initStatisticsHandler(File statisticsFile) {
+        try {
+            close();
+            store = new StatisticsStore(statisticsFile);
+            store.load();
+            aggregator = new StatisticsAggregator(store);
         } catch (IOException e) {
-            System.err.println("Error reading file: " + e.getMessage() + " Line: " + line);
+            System.err.println("Error reading file: " + e.getMessage());
         }
     }
 
     /**
-     * Prints content from the stats file in a nicely formatted way.
+     * @return true once {@link #initStatisticsHandler} has run, results recorded before that are ignored
+     */
+    public static boolean isInitialized() {
+        return aggregator != null;
+    }
+
+    /**
+     * Prints the first page of the stats file in a nicely formatted way, players in the order they were added.
+     * Only that page is read, so it costs the same however many players the file has.
      */
     public static void printStatsFromFile() {
-        System.out.println("Player Statistics:");
-        System.out.println("======================================================");
-        System.out.printf("%-15s%-15s%-10s%-10s%n", "Player", "Total Games", "Wins", "Losses");
-        System.out.println("------------------------------------------------------");
-
-        for (Map.Entry<String, String> entry : fileData.entrySet()) {
-            String[] parts = entry.getValue().split(",");
-            if (parts.length >= 3) {
-                System.out.printf("%-15s%-15s%-10s%-10s%n", entry.getKey(), parts[0], parts[1], parts[2]);
-            } else {
-                System.out.println("Error: Malformed data for player: " + entry.getKey());
+        printHeader();
+        try {
+            for (PlayerRecord record : aggregator.getRecords(0, STATS_PAGE_SIZE)) {
+                printRecord(record);
+            }
+            int more = aggregator.size() - STATS_PAGE_SIZE;
+            if (more > 0) {
+                System.out.println("... and " + more + " more players");
             }
+        } catch (IOException e) {
+            System.err.println("Error reading the stats: " + e.getMessage());
         }
+        printFooter();
+    }
+
+    /**
+     * Prints the stats of the given players only, looked up one by one
+     * @param players The session's players
+     */
+    public static void printStatsFromFile(Player[] players) {
+        printHeader();
+        for (Player p : players) {
+            PlayerRecord record = aggregator.get(p.getPlayerName());
+            if (record != null) {
+                printRecord(record);
+            }
+        }
+        printFooter();
+    }
+
+    private static void printHeader() {
+        System.out.println("Player Statistics:");
+        System.out.println("================================================================");
+        System.out.printf("%-15s%-15s%-10s%-10s%-10s%n", "Player", "Total Games", "Wins", "Losses", "Draws");
+        System.out.println("----------------------------------------------------------------");
+    }
+
+    private static void printRecord(PlayerRecord record) {
+        System.out.printf("%-15s%-15d%-10d%-10d%-10d%n", record.getName(), record.getGames(), record.getWins(),
+                record.getLosses(), record.getDraws());
+    }
 
-        System.out.println("======================================================");
+    private static void printFooter() {
+        System.out.println("================================================================");
     }
 
     /**
-     * Adds the players to the fileData map
+     * Adds the players to the store, with empty totals
      * @param players The players to add
      */
     public static void addPlayers(Player[] players) {
         for (Player p : players) {
-            if (!fileData.containsKey(p.getPlayerName())) {
-                fileData.put(p.getPlayerName(), "0,0,0");
+            try {
+                aggregator.addPlayer(p.getPlayerName());
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("An error occurred while adding " + p.getPlayerName() + ": " + e.getMessage());
             }
         }
     }
@@ -71,54 +108,81 @@ public class StatisticsHandler {
                     "-----------------" + System.lineSeparator() +
                     "Wins:   " + p.wins + System.lineSeparator() +
                     "Losses: " + p.losses + System.lineSeparator() +
+                    "Draws:  " + p.draws + System.lineSeparator() +
                     "=================");
         }
     }
 
     /**
-     * Updates the corresponding lines in the map according to players' wins and losses
+     * Records the session's games, wins, losses and draws of each player
      * @param players Players array from game object
      */
     public static void updateTotalGames(Player[] players) {
         for (Player p : players) {
-            if (fileData.containsKey(p.getPlayerName())) {
-                String[] parts = fileData.get(p.getPlayerName()).split(",");
-                if (parts.length >= 3) {
-                    int totalGames = p.totalGames;
-                    int wins = Integer.parseInt(parts[1].trim()) + p.wins;
-                    int losses = Integer.parseInt(parts[2].trim()) + p.losses;
-
-                    fileData.put(p.getPlayerName(), totalGames + "," + wins + "," + losses);
-                }
+            PlayerRecord record = aggregator.get(p.getPlayerName());
+            if (record != null) {
+                aggregator.record(p.getPlayerName(), p.totalGames - record.getGames(), p.wins, p.losses, p.draws);
             }
         }
     }
 
     /**
-     * Looks through the map for how many games a player has played already, and returns it
+     * Records one finished game, safe from any thread (like a server's sessions)
+     */
+    public static void recordWin(String winner, String loser) {
+        StatisticsAggregator results = aggregator;  //Read once, close() may clear it meanwhile
+        if (results != null) {
+            results.recordWin(winner, loser);
+        }
+    }
+
+    /**
+     * Records one finished game that nobody won, safe from any thread
+     */
+    public static void recordDraw(String player, String opponent) {
+        StatisticsAggregator results = aggregator;
+        if (results != null) {
+            results.recordDraw(player, opponent);
+        }
+    }
+
+    /**
+     * Stops collecting results and writes what's left, like on a server's shutdown; results recorded after it are ignored
+     */
+    public static synchronized void close() {
+        StatisticsAggregator results = aggregator;
+        if (results == null) {
+            return;
+        }
+        aggregator = null;
+        try {
+            results.close();
+            store.close();
+        } catch (IOException e) {
+            System.err.println("An error occurred while writing the stats: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Looks up how many games a player has played already
      * @param playerName The player's name to get totalGames for
-     * @return The total number of games the player has played according to the stats file
+     * @return The total number of games the player has played according to the stats
      */
     public static int getTotalGames(String playerName) {
-        if (fileData.containsKey(playerName)) {
-            String[] parts = fileData.get(playerName).split(",");
-            return Integer.parseInt(parts[0].trim());
-        }
-        return 0;
+        PlayerRecord record = (aggregator == null) ? null : aggregator.get(playerName);
+        return (record == null) ? 0 : record.getGames();
     }
 
     /**
-     * Writes the current map data into statsFile
-     * @param statsFile The destination file
+     * Makes the session's changes durable with one group commit of the journal.
+     * Nothing else is rewritten, the store checkpoints on its own once the journal has grown long enough
+     * @param statsFile The file the handler was initiated with
      */
     public static void writeToFile(File statsFile) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(statsFile))) {
-            for (Map.Entry<String, String> entry : fileData.entrySet()) {
-                writer.write(entry.getKey() + "," + entry.getValue());
-                writer.newLine();
-            }
+        try {
+            aggregator.flush();
             System.out.println("Data successfully written to " + statsFile.getName());
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             System.err.println("An error occurred while writing to the statsFile: " + e.getMessage());
         }
     }
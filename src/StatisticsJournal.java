@@ -0,0 +1,137 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead journal of changes to players' totals.
+ * Each change is a frame: the payload's length and CRC32 (an int each), then the payload
+ * (long seq, the name as a length byte and UTF-8, four int counters).
+ * {@link #append} only collects frames in memory; {@link #commit()} writes the whole batch and forces it
+ * with a single {@link FileChannel#force}, so a batch of results costs one disk sync, not one per game.
+ * Replaying stops at the first frame that is cut short or fails its CRC (what a crash mid-write leaves behind)
+ * and cuts the file there, so new frames follow the last good one.
+ */
+public class StatisticsJournal {
+    private static final int FRAME_HEADER = 2 * Integer.BYTES;
+    private static final int MAX_PAYLOAD = Long.BYTES + 1 + 255 + 4 * Integer.BYTES;  //Any name a length byte can hold
+
+    /**
+     * Receives the journal's changes, oldest first
+     */
+    public interface Replay {
+        void apply(long seq, String name, int games, int wins, int losses, int draws) throws IOException;
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer batch = ByteBuffer.allocate(64 * 1024);  //Frames appended since the last commit
+
+    public StatisticsJournal(File file) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads every intact frame, then cuts off a torn tail if there is one
+     * @return How many changes were replayed
+     */
+    public int replay(Replay replay) throws IOException {
+        int count = 0;
+        long good = 0;  //End of the last intact frame
+        byte[] payload = new byte[MAX_PAYLOAD];
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        try {
+            while (true) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_PAYLOAD) {
+                    break;
+                }
+                in.readFully(payload, 0, length);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                ByteBuffer entry = ByteBuffer.wrap(payload, 0, length);
+                long seq = entry.getLong();
+                byte[] name = new byte[entry.get()];
+                entry.get(name);
+                replay.apply(seq, new String(name, StandardCharsets.UTF_8), entry.getInt(), entry.getInt(),
+                        entry.getInt(), entry.getInt());
+                good += FRAME_HEADER + length;
+                count++;
+            }
+        } catch (EOFException e) {
+            //The end of the journal, or a frame cut short
+        }
+
+        if (good < channel.size()) {
+            System.err.println("Warning: Dropped a torn entry at the end of " + file.getName());
+            channel.truncate(good);
+            channel.force(true);
+        }
+        channel.position(good);
+        return count;
+    }
+
+    /**
+     * Adds a change to the batch; it isn't durable until {@link #commit()}
+     * @param name A name {@link MappedStatisticsFile} accepted, so at most 39 bytes
+     */
+    public void append(long seq, String name, int games, int wins, int losses, int draws) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Long.BYTES + 1 + bytes.length + 4 * Integer.BYTES;
+        if (batch.remaining() < FRAME_HEADER + length) {
+            ByteBuffer larger = ByteBuffer.allocate(batch.capacity() * 2);
+            batch.flip();
+            batch = larger.put(batch);
+        }
+
+        int start = batch.position() + FRAME_HEADER;
+        batch.putInt(length).putInt(0);
+        batch.putLong(seq).put((byte) bytes.length).put(bytes).putInt(games).putInt(wins).putInt(losses).putInt(draws);
+        crc.reset();
+        crc.update(batch.array(), start, length);
+        batch.putInt(start - Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Writes the batch and forces it to the disk, once for all its changes
+     */
+    public void commit() throws IOException {
+        if (batch.position() == 0) {
+            return;
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        channel.force(false);
+        batch.clear();
+    }
+
+    /**
+     * Empties the journal, once everything in it is durable somewhere else
+     */
+    public void reset() throws IOException {
+        batch.clear();
+        channel.truncate(0);
+        channel.force(true);
+    }
+
+    public void close() throws IOException {
+        commit();
+        channel.close();
+    }
+}
@@ -0,0 +1,242 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Players' totals, kept in a {@link MappedStatisticsFile} next to the history file (history file + ".db")
+ * and read or updated one player at a time, in place.
+ * Every change is also appended to a {@link StatisticsJournal} (history file + ".journal"), which
+ * {@link #flush()} commits with one disk sync per batch. Loading replays the journal entries whose sequence
+ * number is newer than the player's record, so changes whose pages hadn't reached the disk aren't lost,
+ * and none is counted twice.
+ * A checkpoint forces the mapped file to the disk, rewrites the history file as "name,games,wins,losses,draws"
+ * lines in a temporary file that is renamed over it, and only then empties the journal; a crash at any point
+ * leaves either the old history file or the new one, never half of one.
+ * The first time, the history file's lines (and the older text log, history file + ".log") are migrated
+ * into the mapped file; it's built under a temporary name and renamed into place once whole.
+ */
+public class StatisticsStore {
+    static final int CHECKPOINT_AFTER_ENTRIES = 10_000;  //Journal entries before a checkpoint empties it
+
+    private final File historyFile;
+    private final File dbFile;
+    private final File logFile;  //The text log older versions kept, only migrated
+    private final File journalFile;
+    private MappedStatisticsFile db;
+    private StatisticsJournal journal;
+    private int journalEntries;  //Entries in the journal, committed or not
+    private long lastSeq;
+
+    public StatisticsStore(File historyFile) {
+        this.historyFile = historyFile;
+        this.dbFile = new File(historyFile.getPath() + ".db");
+        this.logFile = new File(historyFile.getPath() + ".log");
+        this.journalFile = new File(historyFile.getPath() + ".journal");
+    }
+
+    /**
+     * Maps the stats file (migrating the history file the first time) and recovers the journal on top of it
+     */
+    public void load() throws IOException {
+        close();
+        if (!dbFile.exists()) {
+            migrate();
+        }
+        db = MappedStatisticsFile.open(dbFile);
+        lastSeq = db.getLastSeq();  //Reserved ahead of the records, so no record's number is higher
+
+        boolean legacyLog = logFile.exists();
+        if (legacyLog) {
+            readLines(logFile, true);
+        }
+        journal = new StatisticsJournal(journalFile);
+        journalEntries = journal.replay(this::replay);
+        if (legacyLog) {
+            checkpoint();  //The log's lines are in the mapped file now, don't migrate them again
+        }
+    }
+
+    /**
+     * Builds the mapped file from the history file's lines under a temporary name, then renames it into place.
+     * Until the rename there's no mapped file, so a crash midway only means migrating again from the start.
+     */
+    private void migrate() throws IOException {
+        File temp = new File(dbFile.getPath() + ".migrating");
+        Files.deleteIfExists(temp.toPath());  //What a crash left of an earlier try
+        db = MappedStatisticsFile.open(temp);
+        try {
+            readLines(historyFile, false);
+        } finally {
+            db.close();  //Forces it to the disk before the rename
+            db = null;
+        }
+        Files.move(temp.toPath(), dbFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Applies a journal entry unless its player's record already has it
+     */
+    private void replay(long seq, String name, int games, int wins, int losses, int draws) throws IOException {
+        lastSeq = Math.max(lastSeq, seq);
+        int record;
+        try {
+            record = findOrAdd(name);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Dropped a change to " + name + ": " + e.getMessage());  //Written when names could be longer
+            return;
+        }
+        if (seq > db.getSeq(record)) {
+            db.update(record, games, wins, losses, draws, seq);
+        }
+    }
+
+    /**
+     * @param isLog true for the older text log's lines (with a sequence number, or without one in an older log),
+     *              false for the history file's totals
+     * @return How many lines were read
+     */
+    private int readLines(File file, boolean isLog) throws IOException {
+        int count = 0;
+        String line;
+        if (!file.exists()) {
+            return 0;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                boolean hasSeq = isLog && parts.length >= 5;
+                if (parts.length < 4) {
+                    continue;  //Blank or malformed, the old format skipped those too
+                }
+                try {
+                    int first = hasSeq ? 1 : 0;
+                    long seq = hasSeq ? Long.parseLong(parts[0].trim()) : ++lastSeq;
+                    String name = parts[first].trim();
+                    int games = Integer.parseInt(parts[first + 1].trim());
+                    int wins = Integer.parseInt(parts[first + 2].trim());
+                    int losses = Integer.parseInt(parts[first + 3].trim());
+                    int draws = (parts.length > first + 4) ? Integer.parseInt(parts[first + 4].trim()) : 0;
+
+                    if (isLog) {
+                        replay(seq, name, games, wins, losses, draws);
+                    } else {
+                        db.update(findOrAdd(name), games, wins, losses, draws, 0);  //Older than any journal entry
+                    }
+                    count++;
+                } catch (NumberFormatException e) {
+                    System.err.println("Error: Malformed stats line in " + file.getName() + ": " + line);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Error: Skipped a stats line in " + file.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return A copy of the player's totals, or <b>null</b> for a player with no record
+     */
+    public PlayerRecord get(String name) {
+        int record = db.find(name);
+        if (record == -1) {
+            return null;
+        }
+        return new PlayerRecord(name, db.getGames(record), db.getWins(record), db.getLosses(record), db.getDraws(record));
+    }
+
+    /**
+     * Reads one page of players, touching only their part of the mapped file
+     * @param from The first record to read, in the order players were added
+     * @param count How many records to read at most
+     * @return Copies of those players' totals
+     */
+    public List<PlayerRecord> getRecords(int from, int count) {
+        int to = (int) Math.min(db.size(), (long) from + count);
+        List<PlayerRecord> records = new ArrayList<>(Math.max(0, to - from));
+        for (int record = Math.max(0, from); record < to; record++) {
+            records.add(new PlayerRecord(db.nameAt(record), db.getGames(record), db.getWins(record), db.getLosses(record),
+                    db.getDraws(record)));
+        }
+        return records;
+    }
+
+    /**
+     * @return How many players have a record
+     */
+    public int size() {
+        return db.size();
+    }
+
+    /**
+     * Adds a change to a player's totals in place (creating the player if needed) and appends it to the journal.
+     * The change isn't durable until {@link #flush()}.
+     */
+    public void record(String name, int games, int wins, int losses, int draws) throws IOException {
+        int record = findOrAdd(name);  //First, so a name the file can't hold never reaches the journal
+        long seq = ++lastSeq;
+        journal.append(seq, name, games, wins, losses, draws);
+        journalEntries++;
+        db.update(record, games, wins, losses, draws, seq);
+    }
+
+    /**
+     * Commits the journal's batch with one disk sync, and checkpoints once the journal has grown long enough
+     */
+    public void flush() throws IOException {
+        journal.commit();
+        if (journalEntries >= CHECKPOINT_AFTER_ENTRIES) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Makes the mapped file durable, swaps in a fresh history file, then empties the journal it no longer needs
+     */
+    public void checkpoint() throws IOException {
+        journal.commit();
+        db.force();
+        writeHistory();
+        journal.reset();
+        journalEntries = 0;
+        if (logFile.exists()) {
+            Files.delete(logFile.toPath());
+        }
+    }
+
+    /**
+     * Writes every player's totals to a temporary file, forces it, and renames it over the history file
+     */
+    private void writeHistory() throws IOException {
+        File temp = new File(historyFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            for (int record = 0; record < db.size(); record++) {
+                writer.write(db.nameAt(record) + "," + db.getGames(record) + "," + db.getWins(record) + ","
+                        + db.getLosses(record) + "," + db.getDraws(record));
+                writer.newLine();
+            }
+            writer.flush();
+            out.getChannel().force(true);
+        }
+        Files.move(temp.toPath(), historyFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+    }
+
+    private int findOrAdd(String name) throws IOException {
+        int record = db.find(name);
+        return (record != -1) ? record : db.add(name);
+    }
+}
@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+/**
+ * Scores positions from the windows of numToWin cells on the board (every stretch of a row, column or
+ * diagonal a player could still win on). Each window keeps a count of X and O tokens in it, and a drop or
+ * take-back only touches the windows through that cell, so the score is always ready without scanning the board.
+ * A window only counts for a player while the opponent has no token in it.
+ */
+public class ThreatEvaluator {
+    private static final int THREAT_WEIGHT = 32;  //numToWin - 1 tokens: one drop from winning
+    private static final int OPEN_TWO_WEIGHT = 4;  //numToWin - 2 tokens
+    private static final int X = 0, O = 1;
+
+    private final int cols;
+    private final int numToWin;
+    private final int[][] cellWindows;  //[row * cols + col] = ids of the windows through that cell
+    private final int[][] counts;  //[X or O][window id] = tokens of that player in the window
+
+    private int score;  //From X's point of view
+    private final int[] threats = new int[2];  //Windows one token short of a win, per player
+    private final int[] openTwos = new int[2];  //Windows two tokens short of a win, per player
+
+    public ThreatEvaluator(int rows, int cols, int numToWin) {
+        this.cols = cols;
+        this.numToWin = numToWin;
+
+        //First pass counts the windows through every cell, second pass fills them in
+        int[] windowsPerCell = new int[rows * cols];
+        int windowCount = forEachWindow(rows, cols, windowsPerCell, null);
+        cellWindows = new int[rows * cols][];
+        for (int cell = 0; cell < cellWindows.length; cell++) {
+            cellWindows[cell] = new int[windowsPerCell[cell]];
+        }
+        forEachWindow(rows, cols, new int[rows * cols], cellWindows);
+        counts = new int[2][windowCount];
+    }
+
+    /**
+     * Walks all windows, counting them per cell, and (when cellWindows isn't null) recording their ids.
+     * @return The number of windows
+     */
+    private int forEachWindow(int rows, int cols, int[] filled, int[][] cellWindows) {
+        int id = 0;
+        for (int[] direction : Grid.DIRECTIONS) {
+            int dRow = direction[0], dCol = direction[1];
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int endRow = row + (numToWin - 1) * dRow;
+                    int endCol = col + (numToWin - 1) * dCol;
+                    if (endRow < 0 || endRow >= rows || endCol < 0 || endCol >= cols) {
+                        continue;
+                    }
+                    for (int i = 0; i < numToWin; i++) {
+                        int cell = (row + i * dRow) * cols + (col + i * dCol);
+                        if (cellWindows != null) {
+                            cellWindows[cell][filled[cell]] = id;
+                        }
+                        filled[cell]++;
+                    }
+                    id++;
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Clears the counts and adds every token of grid
+     */
+    public void load(Grid grid) {
+        Arrays.fill(counts[X], 0);
+        Arrays.fill(counts[O], 0);
+        score = 0;
+        threats[X] = threats[O] = 0;
+        openTwos[X] = openTwos[O] = 0;
+        for (int row = 0; row < grid.getRows(); row++) {
+            for (int col = 0; col < grid.getCols(); col++) {
+                Character cell = grid.getCell(row, col);
+                if (cell != null) {
+                    drop(row, col, cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a token that was just dropped at [row][col]
+     */
+    public void drop(int row, int col, char symbol) {
+        update(row, col, symbol, 1);
+    }
+
+    /**
+     * Removes the token at [row][col], undoing {@link #drop}
+     */
+    public void undo(int row, int col, char symbol) {
+        update(row, col, symbol, -1);
+    }
+
+    private void update(int row, int col, char symbol, int delta) {
+        int side = (symbol == 'X') ? X : O;
+        int[] own = counts[side];
+        for (int window : cellWindows[row * cols + col]) {
+            forget(window);
+            own[window] += delta;
+            remember(window);
+        }
+    }
+
+    private void forget(int window) {
+        account(window, -1);
+    }
+
+    private void remember(int window) {
+        account(window, 1);
+    }
+
+    /**
+     * Adds (sign 1) or removes (sign -1) what a window contributes to the score and the threat counts
+     */
+    private void account(int window, int sign) {
+        int x = counts[X][window], o = counts[O][window];
+        if (x > 0 && o == 0) {
+            score += sign * weight(x);
+            track(X, x, sign);
+        } else if (o > 0 && x == 0) {
+            score -= sign * weight(o);
+            track(O, o, sign);
+        }
+    }
+
+    private void track(int side, int tokens, int sign) {
+        if (tokens == numToWin - 1) {
+            threats[side] += sign;
+        } else if (tokens == numToWin - 2) {
+            openTwos[side] += sign;
+        }
+    }
+
+    private int weight(int tokens) {
+        if (tokens == numToWin - 1) {
+            return THREAT_WEIGHT;
+        } else if (tokens == numToWin - 2) {
+            return OPEN_TWO_WEIGHT;
+        }
+        return 1;
+    }
+
+    /**
+     * @return How good the position is for symbol, positive is better for them
+     */
+    public int getScore(char symbol) {
+        return (symbol == 'X') ? score : -score;
+    }
+
+    /**
+     * @return Windows where symbol is one token from a win (open threes when playing four in a row)
+     */
+    public int getThreats(char symbol) {
+        return threats[(symbol == 'X') ? X : O];
+    }
+
+    /**
+     * @return Windows where symbol is two tokens from a win (open twos when playing four in a row)
+     */
+    public int getOpenTwos(char symbol) {
+        return openTwos[(symbol == 'X') ? X : O];
+    }
+}
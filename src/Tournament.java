@@ -0,0 +1,164 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Plays many games between two machine strategies without a console, sleeps or threads per player.
+ * Games are split over a pool of workers; each worker has its own grid and its own pair of providers,
+ * made by the factories, so providers never need to be thread-safe. The starting side alternates.
+ * Every game can be archived with {@link #setRecorder}, which the workers share.
+ * Usage: java Tournament [games] [workers] [rows] [cols] [numToWin] [smartNodeLimit] [games_file]
+ */
+public class Tournament {
+
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private GameRecordWriter recorder;  //null unless the games are archived
+
+    public Tournament(int rows, int cols, int numToWin) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numToWin = numToWin;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * @param recorder Where to archive every game, named after the providers' classes, or <b>null</b>
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Plays the games. A provider that returns a full or out-of-range column loses that game.
+     * @param games How many games to play.
+     * @param first Makes the first player's provider for a worker, given the worker's (player-less) game.
+     * @param second Makes the second player's provider the same way.
+     * @return The totals, from the first player's point of view
+     */
+    public TournamentResult run(int games, Function<Game, MoveProvider> first, Function<Game, MoveProvider> second) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<long[]>> results = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        for (int w = 0; w < workers; w++) {
+            int worker = w;
+            results.add(pool.submit(() -> playShare(worker, games, first, second)));
+        }
+
+        long[] totals = new long[4];
+        try {
+            for (Future<long[]> result : results) {
+                long[] share = result.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += share[i];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A tournament worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new TournamentResult((int) totals[0], (int) totals[1], (int) totals[2], totals[3],
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Plays every game whose number leaves this worker's remainder
+     * @return {wins, draws, losses, moves} for the first player
+     */
+    private long[] playShare(int worker, int games, Function<Game, MoveProvider> first, Function<Game, MoveProvider> second)
+            throws IOException {
+        Game game = new Game(rows, cols, numToWin);
+        MoveProvider[] providers = {first.apply(game), second.apply(game)};
+        Grid grid = game.getGrid();
+        long[] share = new long[4];
+
+        for (int g = worker; g < games; g += workers) {
+            grid.clear();
+            int starter = g % 2;  //Index of the provider playing X
+            int winner = -1;  //Provider index, -1 for a draw
+            int turn = starter;
+            GameRecord record = (recorder == null) ? null : new GameRecord(rows, cols, numToWin,
+                    providerName(providers[starter]), providerName(providers[1 - starter]), System.currentTimeMillis());
+            while (grid.getMoveCount() < rows * cols) {
+                char symbol = (turn == starter) ? 'X' : 'O';
+                long turnStarted = System.nanoTime();
+                int col = providers[turn].chooseColumn(grid, symbol);
+                share[3]++;
+                if (col < 0 || col >= cols || grid.isColumnFull(col)) {
+                    winner = 1 - turn;  //Illegal move, forfeit
+                    break;
+                }
+                if (record != null) {
+                    record.addMove(col, (System.nanoTime() - turnStarted) / 1000);
+                }
+                if (grid.play(symbol, col)) {
+                    winner = turn;
+                    break;
+                }
+                turn = 1 - turn;
+            }
+
+            if (record != null) {
+                if (winner != -1) {
+                    record.setResult(winner == starter ? GameRecord.Result.FIRST_WON : GameRecord.Result.SECOND_WON);
+                }
+                recorder.append(record);
+            }
+
+            if (winner == 0) {
+                share[0]++;
+            } else if (winner == 1) {
+                share[2]++;
+            } else {
+                share[1]++;
+            }
+        }
+        return share;
+    }
+
+    private static String providerName(MoveProvider provider) {
+        return provider.getClass().getSimpleName();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int games = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int workers = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int rows = (args.length > 2) ? Integer.parseInt(args[2]) : 6;
+        int cols = (args.length > 3) ? Integer.parseInt(args[3]) : 7;
+        int numToWin = (args.length > 4) ? Integer.parseInt(args[4]) : 4;
+        long nodeLimit = (args.length > 5) ? Long.parseLong(args[5]) : 2_000;
+        GameRecordWriter recorder = (args.length > 6) ? new GameRecordWriter(new File(args[6])) : null;
+
+        Tournament tournament = new Tournament(rows, cols, numToWin);
+        tournament.setWorkers(workers);
+        tournament.setRecorder(recorder);
+        TournamentResult result = tournament.run(games,
+                game -> {
+                    SmartMachinePlayer smart = new SmartMachinePlayer('X', game);
+                    smart.setTimeLimitMillis(0);
+                    smart.setNodeLimit(nodeLimit);
+                    smart.setTranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+                    return smart;
+                },
+                game -> new MachinePlayer('O', game));
+        System.out.println("Smart Machine (" + nodeLimit + " nodes) vs Machine on " + rows + "x" + cols
+                + ", " + numToWin + " to win: " + result);
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+}
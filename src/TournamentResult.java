@@ -0,0 +1,80 @@
+/**
+ * The totals of a {@link Tournament}, from the first player's point of view.
+ */
+public class TournamentResult {
+    private final int wins;
+    private final int draws;
+    private final int losses;
+    private final long moves;
+    private final long elapsedMillis;
+
+    public TournamentResult(int wins, int draws, int losses, long moves, long elapsedMillis) {
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+        this.moves = moves;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return The average number of moves (of both players) per game
+     */
+    public double getAverageGameLength() {
+        return (getGames() == 0) ? 0 : (double) moves / getGames();
+    }
+
+    public double getMovesPerSecond() {
+        return (elapsedMillis == 0) ? moves * 1000.0 : moves * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @return The first player's share of the points, a draw being half a point
+     */
+    public double getScore() {
+        return (getGames() == 0) ? 0.5 : (wins + draws / 2.0) / getGames();
+    }
+
+    /**
+     * @return How many Elo points the first player is stronger by, infinite if one side won every point
+     */
+    public double getEloDifference() {
+        double score = getScore();
+        if (score == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return 400 * Math.log10(score / (1 - score));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("+%d =%d -%d in %d games, %.1f moves per game, %.0f moves/sec, Elo %+.0f",
+                wins, draws, losses, getGames(), getAverageGameLength(), getMovesPerSecond(), getEloDifference());
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+
+/**
+ * Fixed-size table of search results keyed by Zobrist hash.
+ * Entries live in two preallocated long arrays (key and packed data), grouped in buckets of two,
+ * so the table never grows past the size it was created with and never boxes a key.
+ * It can be shared by several search threads without locks: each slot keeps key XOR data,
+ * so a slot torn by two threads writing at once just fails to match and reads as a miss.
+ * The hit/miss/collision counters are not synchronized, so with several threads they are approximate.
+ */
+public class TranspositionTable {
+
+    /**
+     * What to throw away when a bucket is full.
+     */
+    public enum ReplacementPolicy {
+        DEPTH_PREFERRED,  //Keep the deeper of the two entries, replace the shallower one
+        ALWAYS_REPLACE  //The newest entry always goes in, the older one moves to the second slot
+    }
+
+    //Kinds of scores, never 0 so a stored entry is never 0
+    public static final int EXACT = 1, LOWER_BOUND = 2, UPPER_BOUND = 3;
+
+    public static final long MISS = 0;  //What probe returns when the position isn't stored
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int BUCKET_SIZE = 2;
+
+    //Packed entry layout: score in bits 0-31, depth in 32-47, move + 1 in 48-61, kind in 62-63
+    private static final int DEPTH_SHIFT = 32, MOVE_SHIFT = 48, KIND_SHIFT = 62;
+    private static final long DEPTH_MASK = 0xFFFF, MOVE_MASK = 0x3FFF;
+
+    private final long[] keys;  //Key XOR data of each slot
+    private final long[] data;
+    private final int bucketMask;
+    private final ReplacementPolicy policy;
+
+    private long hits;
+    private long misses;
+    private long collisions;  //Probes that found their bucket taken by other positions
+
+    /**
+     * @param sizeMb Hard cap on the memory used by the entries, rounded down to a power of two entry count.
+     * @param policy What to evict when a bucket is full.
+     */
+    public TranspositionTable(int sizeMb, ReplacementPolicy policy) {
+        long maxEntries = ((long) sizeMb << 20) / ENTRY_BYTES;
+        if (maxEntries < BUCKET_SIZE) {
+            throw new IllegalArgumentException("Transposition table needs at least 1MB, got " + sizeMb);
+        }
+        int entries = (int) Long.highestOneBit(Math.min(maxEntries, 1 << 30));
+        keys = new long[entries];
+        data = new long[entries];
+        bucketMask = entries / BUCKET_SIZE - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * Looks a position up.
+     * @param key The position's hash (including who's to move).
+     * @return The packed entry, read it with {@link #score}, {@link #depth}, {@link #move} and {@link #kind},
+     * or {@link #MISS} if it isn't stored
+     */
+    public long probe(long key) {
+        int slot = bucketOf(key);
+        for (int i = slot; i < slot + BUCKET_SIZE; i++) {
+            long entry = data[i];
+            if (entry != MISS && (keys[i] ^ entry) == key) {
+                hits++;
+                return entry;
+            }
+        }
+        misses++;
+        if (data[slot] != MISS) {
+            collisions++;
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a search result.
+     * @param key The position's hash (including who's to move).
+     * @param score The score, relative to the position.
+     * @param depth How deep it was searched.
+     * @param move The best column found, or -1.
+     * @param kind {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     */
+    public void store(long key, int score, int depth, int move, int kind) {
+        long entry = (score & 0xFFFFFFFFL)
+                | ((long) Math.min(depth, (int) DEPTH_MASK) << DEPTH_SHIFT)
+                | ((long) (move + 1) & MOVE_MASK) << MOVE_SHIFT
+                | ((long) kind << KIND_SHIFT);
+
+        int slot = bucketOf(key);
+        //Same position: just refresh it
+        for (int i = slot; i < slot + BUCKET_SIZE; i++) {
+            long old = data[i];
+            if (old != MISS && (keys[i] ^ old) == key) {
+                keys[i] = key ^ entry;
+                data[i] = entry;
+                return;
+            }
+        }
+
+        int victim;
+        if (policy == ReplacementPolicy.ALWAYS_REPLACE) {
+            keys[slot + 1] = keys[slot];
+            data[slot + 1] = data[slot];
+            victim = slot;
+        } else {
+            victim = (depth(data[slot]) <= depth(data[slot + 1])) ? slot : slot + 1;
+        }
+        keys[victim] = key ^ entry;
+        data[victim] = entry;
+    }
+
+    private int bucketOf(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE;
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    /**
+     * @return The stored best column, or -1 if none
+     */
+    public static int move(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK) - 1;
+    }
+
+    public static int kind(long entry) {
+        return (int) (entry >>> KIND_SHIFT);
+    }
+
+    /**
+     * Empties the table and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, MISS);
+        hits = 0;
+        misses = 0;
+        collisions = 0;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getCollisions() {
+        return collisions;
+    }
+
+    @Override
+    public String toString() {
+        return getCapacity() + " entries, " + hits + " hits, " + misses + " misses, " + collisions + " collisions";
+    }
+}
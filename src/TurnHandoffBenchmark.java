@@ -0,0 +1,96 @@
+/**
+ * Measures what passing the turn costs: the old way, two player threads taking turns through
+ * synchronized wait/notifyAll on a shared monitor, against the driver loop calling each player in turn.
+ * The "move" is an empty counter bump so only the handoff is measured.
+ * Usage: java TurnHandoffBenchmark [turns]
+ */
+public class TurnHandoffBenchmark {
+
+    private static final int ROUNDS = 5;  //The first rounds warm up the JIT, the last one is reported
+
+    //State shared by the two threads of the old handoff
+    private final Object monitor = new Object();
+    private int currentPlayer;
+    private long movesMade;
+
+    public static void main(String[] args) throws InterruptedException {
+        int turns = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+        TurnHandoffBenchmark benchmark = new TurnHandoffBenchmark();
+
+        double threadNanos = 0, loopNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            threadNanos = benchmark.threadHandoff(turns);
+            loopNanos = benchmark.loopHandoff(turns);
+        }
+        System.out.printf("Threads with wait/notifyAll: %,10.1f ns per turn%n", threadNanos);
+        System.out.printf("Single driver loop:          %,10.1f ns per turn%n", loopNanos);
+        System.out.printf("Speedup: %.0fx%n", threadNanos / loopNanos);
+    }
+
+    /**
+     * @return Nanoseconds per turn with one thread per player
+     */
+    private double threadHandoff(int turns) throws InterruptedException {
+        currentPlayer = 0;
+        movesMade = 0;
+        Thread[] players = new Thread[2];
+        for (int p = 0; p < players.length; p++) {
+            int me = p;
+            players[p] = new Thread(() -> takeTurns(me, turns));
+        }
+
+        long start = System.nanoTime();
+        for (Thread player : players) {
+            player.start();
+        }
+        for (Thread player : players) {
+            player.join();
+        }
+        return (double) (System.nanoTime() - start) / turns;
+    }
+
+    /**
+     * What each player thread did: wait for its turn, move, pass the turn and wake everyone
+     */
+    private void takeTurns(int me, int turns) {
+        synchronized (monitor) {
+            while (true) {
+                while (currentPlayer != me && movesMade < turns) {
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (movesMade >= turns) {
+                    monitor.notifyAll();
+                    return;
+                }
+                movesMade++;
+                currentPlayer = 1 - me;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return Nanoseconds per turn with the players called from one loop
+     */
+    private double loopHandoff(int turns) {
+        movesMade = 0;
+        MoveProvider[] players = {(grid, symbol) -> (int) movesMade++, (grid, symbol) -> (int) movesMade++};
+        int current = 0;
+
+        long start = System.nanoTime();
+        for (int turn = 0; turn < turns; turn++) {
+            players[current].chooseColumn(null, 'X');
+            current = 1 - current;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (movesMade != turns) {
+            throw new IllegalStateException("Lost moves: " + movesMade);
+        }
+        return (double) elapsed / turns;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * A machine player that plays the classic 6x7, four-in-a-row game perfectly.
+ * Positions the solver can't finish within its budget (the first few moves) come from the
+ * opening book or the search engine, like {@link SmartMachinePlayer}; so do other geometries.
+ */
+public class UnbeatableMachinePlayer extends SmartMachinePlayer{
+
+    static final long DEFAULT_SOLVER_NODE_LIMIT = 2_000_000;  //About a second at worst
+
+    private final Solver solver;  //null when the geometry can't be solved
+
+    public UnbeatableMachinePlayer(Character symbol, Game game) {
+        super(symbol, game);
+        name = "Unbeatable Machine";
+        Grid grid = game.getGrid();
+        if (Solver.supports(grid.getRows(), grid.getCols(), game.getNumToWin())) {
+            solver = new Solver();
+            solver.setNodeLimit(DEFAULT_SOLVER_NODE_LIMIT);
+        } else {
+            solver = null;
+        }
+    }
+
+    /**
+     * Plays the solver's move if it can solve the position, otherwise falls back to the smart player's move
+     */
+    @Override
+    public void makeMove() {
+        clearStop();
+        SolverResult result = (solver == null) ? null : solver.solve(game.getGrid(), symbol);
+        if (result == null) {
+            super.makeMove();
+            return;
+        }
+        game.getGrid().play(symbol, result.getColumn());
+        System.out.println("MachinePlayer played " + result);
+    }
+
+    /**
+     * Picks the solver's column if it can solve the position, otherwise the smart player's column.
+     * When it was stopped the engine's stop is still set too, so the fallback search returns at once.
+     */
+    @Override
+    protected int thinkColumn(Grid grid, char symbol) {
+        SolverResult result = (solver == null) ? null : solver.solve(grid, symbol);
+        return (result != null) ? result.getColumn() : super.thinkColumn(grid, symbol);
+    }
+
+    @Override
+    public void stopThinking() {
+        if (solver != null) {
+            solver.stop();
+        }
+        super.stopThinking();
+    }
+
+    @Override
+    protected void clearStop() {
+        if (solver != null) {
+            solver.clearStop();
+        }
+        super.clearStop();
+    }
+
+    /**
+     * Limits how many positions the solver may look at before handing the move to the search, 0 for no limit
+     */
+    public void setSolverNodeLimit(long nodeLimit) {
+        if (solver != null) {
+            solver.setNodeLimit(nodeLimit);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The same protocol as {@link GameServer}, written as plain blocking code with one virtual thread per connection.
+ * A session's thread reads a line, answers it and thinks for the machine itself, borrowing one of a fixed set
+ * of search engines. There are as many as compute threads, by default one fewer than the carriers (one per
+ * processor), so with two processors or more the searches leave a carrier free for the sessions' reads and replies.
+ * Sessions don't each pay for a transposition table either.
+ * Usage: java VirtualThreadGameServer [port] [computeThreads] [machineMillis] [stats_file] [games_file]
+ */
+public class VirtualThreadGameServer {
+
+    private final int port;
+    private final long machineMillis;
+    private final BlockingQueue<Map<String, SearchEngine>> engines;  //Engines by board geometry, one set per compute thread
+    private GameRecordWriter recorder;  //Shared by every session, null if games aren't archived
+    private volatile ServerSocket serverSocket;
+
+    public VirtualThreadGameServer(int port, int computeThreads, long machineMillis) {
+        this.port = port;
+        this.machineMillis = machineMillis;
+        engines = new ArrayBlockingQueue<>(computeThreads);
+        for (int i = 0; i < computeThreads; i++) {
+            engines.add(GameSession.newEngineCache());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : GameServer.DEFAULT_PORT;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : defaultComputeThreads();
+        long millis = (args.length > 2) ? Long.parseLong(args[2]) : GameServer.DEFAULT_MACHINE_MILLIS;
+        if (args.length > 3) {
+            StatisticsHandler.initStatisticsHandler(new File(args[3]));  //Results of finished games go here
+            Runtime.getRuntime().addShutdownHook(new Thread(StatisticsHandler::close));  //Results not flushed yet
+        }
+        GameRecordWriter recorder = (args.length > 4) ? new GameRecordWriter(new File(args[4])) : null;
+        if (recorder != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    recorder.close();  //Whatever is still buffered
+                } catch (IOException e) {
+                    System.err.println("An error occurred while writing the games file: " + e.getMessage());
+                }
+            }));
+        }
+        System.out.println("Serving 4-in-a-row on port " + port + " with a virtual thread per session");
+        VirtualThreadGameServer server = new VirtualThreadGameServer(port, threads, millis);
+        server.setRecorder(recorder);
+        server.run();
+    }
+
+    /**
+     * @return One fewer than the virtual threads' carriers (one per processor), at least 1
+     */
+    static int defaultComputeThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * @param recorder Where every session archives its finished games, or <b>null</b>
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Accepts connections until {@link #stop()}
+     */
+    public void run() throws IOException {
+        try (ServerSocket server = new ServerSocket(port);
+             ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            serverSocket = server;
+            while (!server.isClosed()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (IOException e) {
+                    break;  //Closed by stop()
+                }
+                sessions.submit(() -> serve(socket));
+            }
+        }
+    }
+
+    public void stop() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     * One connection's whole life, on its own virtual thread
+     */
+    private void serve(Socket socket) {
+        GameSession session = new GameSession();
+        session.setRecorder(recorder);
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII),
+                     2 * GameServer.MAX_LINE_LENGTH);  //The default 8K chars would be most of an idle session's memory
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            String line;
+            while (!session.isClosed() && (line = in.readLine()) != null) {
+                if (line.length() > GameServer.MAX_LINE_LENGTH) {
+                    out.write("ERR Line too long\n");
+                    break;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                out.write(session.handle(line));
+                out.flush();
+                if (session.startMachineMove()) {
+                    out.write(think(session));
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            //The client went away, nothing to clean up besides the socket
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Plays the machine's move on a borrowed set of engines
+     * @return The reply for the client, ERR if the search failed
+     */
+    private String think(GameSession session) throws InterruptedException {
+        Map<String, SearchEngine> borrowed = engines.take();
+        try {
+            return session.machineMove(GameSession.chooseMachineColumn(borrowed, session.snapshot(),
+                    session.getMachineSymbol(), machineMillis));
+        } catch (RuntimeException e) {
+            return session.machineMoveFailed(e.toString());  //Answer, rather than end the session without a word
+        } finally {
+            engines.add(borrowed);
+        }
+    }
+}
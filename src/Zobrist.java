@@ -0,0 +1,41 @@
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random keys for Zobrist hashing: a position's hash is the XOR of the keys of its tokens,
+ * so dropping or taking back a token updates it with a single XOR.
+ * Keys come from a fixed seed per board size, so a position hashes the same in every run.
+ */
+public final class Zobrist {
+    //XORed into the hash when O is to move, positions with the same tokens but a different mover differ
+    public static final long O_TO_MOVE = 0x9E3779B97F4A7C15L;
+
+    private static final long SEED = 0x4F75724C6F6E6721L;
+    private static final Map<Long, long[]> KEYS_BY_SIZE = new ConcurrentHashMap<>();
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the keys for a rows x cols board, two per cell: [(row * cols + col) * 2 + (0 for X, 1 for O)].
+     * The array is shared between grids of the same size and must not be modified.
+     */
+    public static long[] keysFor(int rows, int cols) {
+        return KEYS_BY_SIZE.computeIfAbsent(((long) rows << 32) | cols, size -> {
+            SplittableRandom random = new SplittableRandom(SEED ^ size);
+            long[] keys = new long[rows * cols * 2];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+            return keys;
+        });
+    }
+
+    /**
+     * @return The key of the position with symbol to move
+     */
+    public static long withMover(long hash, char symbol) {
+        return (symbol == 'O') ? hash ^ O_TO_MOVE : hash;
+    }
+}